@@ -0,0 +1,65 @@
+package asteroids;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import asteroids.Population.Rock;
+
+/**
+ * Benchmarks of a whole step of the simulation with its work shared among 1,
+ * 2, 4 and 8 threads. Only crowds of 1000 and 10000 participants are used,
+ * since smaller ones always run on a single thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ParallelBenchmark {
+	// Number of participants in the game
+	@Param({ "1000", "10000" })
+	public int count;
+
+	// Number of threads the work is shared among
+	@Param({ "1", "2", "4", "8" })
+	public int parallelism;
+
+	// The game state holding the rocks
+	private ParticipantState state;
+
+	@Setup
+	public void setUp() {
+		Audio.detach();
+		Rock[] rocks = Population.create(count, 42);
+		state = new ParticipantState();
+		state.setParallelism(parallelism);
+		Population.fill(state, rocks);
+	}
+
+	@TearDown
+	public void tearDown() {
+		state.setParallelism(1);
+	}
+
+	/**
+	 * One step of the game: every participant moves, then collisions are
+	 * found and dealt with.
+	 */
+	@Benchmark
+	public void moveParticipants() {
+		state.moveParticipants();
+	}
+}
@@ -0,0 +1,82 @@
+package asteroids;
+
+import java.awt.Shape;
+import java.util.Random;
+
+import asteroids.destroyers.CollidesWith;
+import asteroids.participants.Outlines;
+import static asteroids.Constants.*;
+
+/**
+ * Fills a game with participants for benchmarking. Every participant is a
+ * Rock: it has the outline of an asteroid and moves like one, but it collides
+ * with everything and nothing happens when it does. The population therefore
+ * stays the same size however long a benchmark runs, while every pair that the
+ * broadphase finds is put through the full overlap test.
+ */
+class Population {
+	/**
+	 * Creates count rocks spread over the screen with random sizes, speeds
+	 * and spins. The same seed gives the same rocks.
+	 */
+	static Rock[] create(int count, long seed) {
+		Random random = new Random(seed);
+		Rock[] rocks = new Rock[count];
+		for (int i = 0; i < count; i++) {
+			Rock rock = new Rock(Outlines.asteroid(random.nextInt(4), random.nextInt(3)));
+			rock.setPosition(random.nextDouble() * SIZE, random.nextDouble() * SIZE);
+			rock.setVelocity(1 + random.nextDouble() * 3, random.nextDouble() * 2 * Math.PI);
+			rock.setRotation(random.nextDouble() * 2 * Math.PI);
+			rock.spin = (random.nextDouble() - 0.5) * 0.1;
+			rocks[i] = rock;
+		}
+		return rocks;
+	}
+
+	/**
+	 * Adds the rocks to state and runs two steps: the first puts them in the
+	 * participant list and the second gives them their borders.
+	 */
+	static void fill(ParticipantState state, Rock[] rocks) {
+		state.clear();
+		for (Rock rock : rocks) {
+			state.addParticipant(rock);
+		}
+		state.moveParticipants();
+		state.moveParticipants();
+	}
+
+	/**
+	 * A participant that moves like an asteroid and collides with everything
+	 */
+	@CollidesWith(Participant.class)
+	static class Rock extends Participant {
+		// The outline, shared with the asteroids
+		private final Shape outline;
+
+		// Rotation per move
+		private double spin;
+
+		// Number of collisions
+		int hits;
+
+		Rock(Shape outline) {
+			this.outline = outline;
+		}
+
+		@Override
+		protected Shape getOutline() {
+			return outline;
+		}
+
+		@Override
+		protected void steer() {
+			rotate(spin);
+		}
+
+		@Override
+		public void collidedWith(Participant p) {
+			hits++;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package asteroids;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static asteroids.Constants.*;
+
+/**
+ * Benchmarks painting the game screen into an offscreen image, with 10, 100,
+ * 1000 and 10000 participants, by stroking outlines one at a time or in a
+ * batch per color and by copying sprites.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+	// Number of participants in the game
+	@Param({ "10", "100", "1000", "10000" })
+	public int count;
+
+	// How participants are drawn
+	@Param({ "STROKE", "BATCHED", "SPRITES" })
+	public Screen.RenderMode mode;
+
+	// The screen being painted
+	private Screen screen;
+
+	// The image painted into, and its graphics
+	private BufferedImage image;
+	private Graphics2D graphics;
+
+	@Setup
+	public void setUp() {
+		Audio.detach();
+		Controller controller = new Controller(false, null);
+		Population.fill(controller.getParticipantState(), Population.create(count, 42));
+		screen = new Screen(controller);
+		screen.setSize(SIZE, SIZE);
+		screen.setRenderMode(mode);
+		image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+		graphics = image.createGraphics();
+	}
+
+	@TearDown
+	public void tearDown() {
+		graphics.dispose();
+	}
+
+	/**
+	 * Painting one frame.
+	 */
+	@Benchmark
+	public void paintComponent() {
+		screen.paintComponent(graphics);
+	}
+}
@@ -0,0 +1,93 @@
+package asteroids;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import asteroids.Population.Rock;
+
+/**
+ * Benchmarks of the simulation: a whole step, the collision check on its own,
+ * and moving and overlap-testing single participants. Each is run with 10,
+ * 100, 1000 and 10000 participants.
+ *
+ * The per-participant benchmarks report the time for one participant (or one
+ * pair), averaged over the whole population.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SimulationBenchmark {
+	// Number of participants in the game
+	@Param({ "10", "100", "1000", "10000" })
+	public int count;
+
+	// The game state holding the rocks
+	private ParticipantState state;
+
+	// The rocks, in the order they were created
+	private Rock[] rocks;
+
+	@Setup
+	public void setUp() {
+		Audio.detach();
+		rocks = Population.create(count, 42);
+		state = new ParticipantState();
+		Population.fill(state, rocks);
+	}
+
+	/**
+	 * One step of the game: every participant moves, then collisions are
+	 * found and dealt with.
+	 */
+	@Benchmark
+	public void moveParticipants() {
+		state.moveParticipants();
+	}
+
+	/**
+	 * Finding and dealing with collisions, with nothing moving.
+	 */
+	@Benchmark
+	public void checkForCollisions() {
+		state.checkForCollisions();
+	}
+
+	/**
+	 * Moving one participant.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(10000)
+	public void move() {
+		for (int i = 0; i < 10000; i++) {
+			rocks[i % count].move();
+		}
+	}
+
+	/**
+	 * Testing one pair of participants for overlap. Pairs are neighbours in
+	 * the creation order, so most do not overlap, as in the game.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(10000)
+	public void overlaps(Blackhole blackhole) {
+		for (int i = 0; i < 10000; i++) {
+			blackhole.consume(rocks[i % count].overlaps(rocks[(i + 1) % count]));
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package asteroids;
+
+import java.io.IOException;
+
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+ * Decides where the sounds of the game go. Sound is attached by default, and
+ * is played by a SoftwareMixer that load creates and starts when the game
+ * starts up. getSounds only reads the mixer that load left, without taking a
+ * lock, so the thread running the game never waits on audio; sounds played
+ * before load has been called go to Sounds.NONE. When sound is detached, as
+ * it is when the game is run without a display, or if the sounds cannot be
+ * loaded or no audio line can be opened, sounds go to Sounds.NONE and no
+ * sound files are read and no audio lines are opened.
+ *
+ * Setting the system property asteroids.audio to "null" mixes the sounds as
+ * usual but throws the result away instead of opening an audio line, so the
+ * mixer can be run on a machine with no sound card.
+ */
+public class Audio {
+	// True if sounds should be heard
+	private static volatile boolean attached = true;
+
+	// The mixer that plays the sounds, or null if it has not been created
+	private static volatile SoftwareMixer mixer;
+
+	// True once creating the mixer has failed
+	private static boolean failed;
+
+	/**
+	 * Turns sound on.
+	 */
+	public static void attach() {
+		attached = true;
+	}
+
+	/**
+	 * Turns sound off.
+	 */
+	public static void detach() {
+		attached = false;
+	}
+
+	/**
+	 * Reports whether sound is on.
+	 */
+	public static boolean isAttached() {
+		return attached;
+	}
+
+	/**
+	 * Loads the sounds and starts the mixer, if sound is on and it has not
+	 * been started already. Called once at startup, before the game runs.
+	 */
+	public static synchronized void load() {
+		if (attached && !failed && mixer == null) {
+			try {
+				AudioBank bank = new AudioBank();
+				AudioOutput output;
+				if ("null".equals(System.getProperty("asteroids.audio"))) {
+					output = new NullOutput(bank.getFormat(), true);
+				} else {
+					output = new LineOutput(bank.getFormat(), 4 * SoftwareMixer.getBlockBytes());
+				}
+				SoftwareMixer started = new SoftwareMixer(bank, output);
+				started.start();
+				mixer = started;
+			} catch (IOException | LineUnavailableException e) {
+				failed = true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the Sounds that participants should play their sounds on. This
+	 * never blocks: it returns the mixer started by load, or Sounds.NONE if
+	 * sound is off or there is no mixer.
+	 */
+	public static Sounds getSounds() {
+		SoftwareMixer sounds = mixer;
+		return (attached && sounds != null) ? sounds : Sounds.NONE;
+	}
+}
@@ -0,0 +1,84 @@
+package asteroids;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * The samples of every sound in the game. Each sound file is read and decoded
+ * once, when the bank is created, into 16-bit mono samples at the sample rate
+ * of the first file. The samples are never changed afterwards, so a bank can
+ * be shared between threads.
+ */
+public class AudioBank {
+	// The format of all the samples
+	private AudioFormat format;
+
+	// The samples of each sound, indexed by ordinal
+	private short[][] samples;
+
+	/**
+	 * Loads every sound. Throws an IOException if any of them cannot be
+	 * loaded, in which case the game should be silent.
+	 */
+	public AudioBank() throws IOException {
+		samples = new short[Sound.values().length][];
+		for (Sound sound : Sound.values()) {
+			samples[sound.ordinal()] = decode(sound.getFile());
+		}
+	}
+
+	/**
+	 * Returns the format of the samples: signed 16-bit little-endian mono.
+	 */
+	public AudioFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Returns the samples of sound. The array must not be modified.
+	 */
+	public short[] getSamples(Sound sound) {
+		return samples[sound.ordinal()];
+	}
+
+	/**
+	 * Reads a sound file and returns its samples, converted to the format of
+	 * the bank.
+	 */
+	private short[] decode(String file) throws IOException {
+		InputStream resource = AudioBank.class.getResourceAsStream(file);
+		if (resource == null) {
+			throw new IOException("Missing sound " + file);
+		}
+		try (AudioInputStream in = AudioSystem.getAudioInputStream(new BufferedInputStream(resource))) {
+			if (format == null) {
+				format = new AudioFormat(in.getFormat().getSampleRate(), 16, 1, true, false);
+			}
+			AudioInputStream pcm = format.matches(in.getFormat()) ? in : AudioSystem.getAudioInputStream(format, in);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int n;
+			while ((n = pcm.read(buffer)) > 0) {
+				out.write(buffer, 0, n);
+			}
+
+			// Assemble the little-endian bytes into samples, dropping any
+			// partial sample at the end
+			byte[] data = out.toByteArray();
+			short[] result = new short[data.length / 2];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = (short) ((data[2 * i] & 0xFF) | (data[2 * i + 1] << 8));
+			}
+			return result;
+		} catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+			throw new IOException("Cannot decode sound " + file, e);
+		}
+	}
+}
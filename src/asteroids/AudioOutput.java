@@ -0,0 +1,17 @@
+package asteroids;
+
+/**
+ * Where a SoftwareMixer sends the samples it mixes.
+ */
+public interface AudioOutput {
+	/**
+	 * Writes length bytes of samples from data. Blocks for about as long as
+	 * the samples take to play, which is what paces the mixer.
+	 */
+	public void write(byte[] data, int length);
+
+	/**
+	 * Releases whatever the output holds.
+	 */
+	public void close();
+}
@@ -0,0 +1,129 @@
+package asteroids;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import asteroids.destroyers.AlienDestroyer;
+import asteroids.destroyers.AsteroidDestroyer;
+import asteroids.destroyers.BossDestroyer;
+import asteroids.destroyers.CollidesWith;
+import asteroids.destroyers.ShipDestroyer;
+import asteroids.participants.Alien;
+import asteroids.participants.Asteroid;
+import asteroids.participants.BossAlien;
+import asteroids.participants.Ship;
+
+/**
+ * Decides which pairs of participants are worth testing for a collision.
+ * 
+ * A class reacts to the destroyers of its kind (a Ship reacts to any
+ * ShipDestroyer, and so on) and to whatever its {@link CollidesWith}
+ * annotation lists. A pair is worth testing only if at least one of the two
+ * reacts to the other. The answer is worked out once for each pair of classes
+ * and kept in a matrix. The matrix may be consulted from several threads at
+ * once.
+ */
+public class CollisionFilter {
+	// Each participant class paired with the marker interface of its
+	// destroyers
+	private final static Class<?>[][] DESTROYERS = { { Ship.class, ShipDestroyer.class },
+			{ Asteroid.class, AsteroidDestroyer.class }, { Alien.class, AlienDestroyer.class },
+			{ BossAlien.class, BossDestroyer.class } };
+
+	// Entries of the matrix
+	private final static byte UNKNOWN = 0;
+	private final static byte INTERESTING = 1;
+	private final static byte INERT = 2;
+
+	// Classes that have been seen so far, indexed by their id
+	private final static List<Class<?>> classes = new ArrayList<Class<?>>();
+
+	// What each class reacts to, indexed by id
+	private final static List<Class<?>[]> interests = new ArrayList<Class<?>[]>();
+
+	// matrix[i][j] records whether classes i and j are worth testing. An entry
+	// only ever changes from UNKNOWN to its final value, so a thread that
+	// reads one that is out of date just works it out again.
+	private static volatile byte[][] matrix = new byte[0][];
+
+	// Assigns each participant class its id
+	private final static ClassValue<Integer> ids = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> c) {
+			return register(c);
+		}
+	};
+
+	/**
+	 * Reports whether a collision between p1 and p2 could have any effect.
+	 */
+	public static boolean canInteract(Participant p1, Participant p2) {
+		int i = ids.get(p1.getClass());
+		int j = ids.get(p2.getClass());
+		byte[][] rows = matrix;
+		byte entry = (i < rows.length && j < rows[i].length) ? rows[i][j] : UNKNOWN;
+		if (entry == UNKNOWN) {
+			entry = decide(i, j);
+		}
+		return entry == INTERESTING;
+	}
+
+	/**
+	 * Gives class c an id and works out what it reacts to.
+	 */
+	private static synchronized int register(Class<?> c) {
+		List<Class<?>> list = new ArrayList<Class<?>>();
+		for (Class<?>[] pair : DESTROYERS) {
+			if (pair[0].isAssignableFrom(c)) {
+				list.add(pair[1]);
+			}
+		}
+		CollidesWith declared = c.getAnnotation(CollidesWith.class);
+		if (declared != null) {
+			list.addAll(Arrays.asList(declared.value()));
+		}
+
+		int id = classes.size();
+		classes.add(c);
+		interests.add(list.toArray(new Class<?>[list.size()]));
+		byte[][] rows = Arrays.copyOf(matrix, id + 1);
+		rows[id] = new byte[0];
+		matrix = rows;
+		return id;
+	}
+
+	/**
+	 * Fills in and returns the matrix entries for classes i and j.
+	 */
+	private static synchronized byte decide(int i, int j) {
+		Class<?> a = classes.get(i);
+		Class<?> b = classes.get(j);
+		byte entry = (reacts(interests.get(i), b) || reacts(interests.get(j), a)) ? INTERESTING : INERT;
+		set(i, j, entry);
+		set(j, i, entry);
+		return entry;
+	}
+
+	/**
+	 * Reports whether any of the interests is a supertype of c.
+	 */
+	private static boolean reacts(Class<?>[] interests, Class<?> c) {
+		for (Class<?> interest : interests) {
+			if (interest.isAssignableFrom(c)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Records entry in row i, column j of the matrix.
+	 */
+	private static void set(int i, int j, byte entry) {
+		if (matrix[i].length <= j) {
+			matrix[i] = Arrays.copyOf(matrix[i], classes.size());
+		}
+		matrix[i][j] = entry;
+	}
+}
@@ -0,0 +1,211 @@
+package asteroids;
+
+import java.util.Arrays;
+import static asteroids.Constants.*;
+
+/**
+ * A uniform grid over the game area that is used as a collision broadphase.
+ * Each participant is entered into every cell that its bounding box touches
+ * along its last move, and only participants that share a cell are handed on
+ * to the (much more expensive) overlap test. Taking in the whole move lets a
+ * fast participant be paired with anything it passed on the way.
+ *
+ * Participants are identified by their index in the participant list for the
+ * current frame. Because participants drift off one edge of the screen before
+ * reappearing on the other, cell coordinates wrap around at SIZE so that
+ * nothing falls outside the grid.
+ *
+ * Once the grid has been filled, any number of threads may search it at the
+ * same time, so long as each uses a Search of its own.
+ */
+public class CollisionGrid {
+	// Width and height of a cell in pixels
+	private final static int CELL_SIZE = 75;
+
+	// Number of cells along each side of the grid
+	private final static int CELLS = (SIZE + CELL_SIZE - 1) / CELL_SIZE;
+
+	// Participant indices stored in each cell, and how many of them there are
+	private int[][] cells;
+	private int[] cellCounts;
+
+	// Number of participants the grid is prepared to hold
+	private int count;
+
+	// Used by findCandidates when no Search is given
+	private Search search;
+
+	/**
+	 * The working space for searching the grid, and the candidates found by
+	 * the last search.
+	 */
+	public static class Search {
+		// Used to avoid reporting the same candidate twice when it spans
+		// several cells. marks[i] == stamp means that i has already been
+		// reported.
+		private int[] marks;
+		private int stamp;
+
+		// Candidates found by the last search
+		private int[] candidates;
+
+		/**
+		 * Creates the space for searching a grid.
+		 */
+		public Search() {
+			marks = new int[64];
+			candidates = new int[64];
+			stamp = 0;
+		}
+
+		/**
+		 * Returns the array filled in by the last search.
+		 */
+		public int[] getCandidates() {
+			return candidates;
+		}
+
+		/**
+		 * Makes room for participants with indices 0 through count - 1.
+		 */
+		private void prepare(int count) {
+			if (marks.length < count) {
+				marks = new int[Math.max(count, marks.length * 2)];
+				stamp = 0;
+			}
+			if (candidates.length < count) {
+				candidates = new int[Math.max(count, candidates.length * 2)];
+			}
+		}
+
+		/**
+		 * Advances the stamp used to mark reported candidates, clearing the
+		 * marks when the stamp wraps around.
+		 */
+		private void nextStamp() {
+			stamp++;
+			if (stamp == 0) {
+				Arrays.fill(marks, 0);
+				stamp = 1;
+			}
+		}
+	}
+
+	/**
+	 * Creates an empty grid.
+	 */
+	public CollisionGrid() {
+		cells = new int[CELLS * CELLS][4];
+		cellCounts = new int[CELLS * CELLS];
+		count = 0;
+		search = new Search();
+	}
+
+	/**
+	 * Removes everything from the grid and prepares it to hold participants
+	 * with indices 0 through count - 1.
+	 */
+	public void clear(int count) {
+		Arrays.fill(cellCounts, 0);
+		this.count = count;
+		search.prepare(count);
+	}
+
+	/**
+	 * Enters the participant with the given index into every cell touched by
+	 * the bounding box of its border on the way along a move of (moveX,
+	 * moveY) that brought it there.
+	 */
+	public void insert(int index, OutlineGeometry border, double moveX, double moveY) {
+		int minCol = cell(border.getMinX() - Math.max(moveX, 0));
+		int maxCol = span(minCol, cell(border.getMaxX() - Math.min(moveX, 0)));
+		int minRow = cell(border.getMinY() - Math.max(moveY, 0));
+		int maxRow = span(minRow, cell(border.getMaxY() - Math.min(moveY, 0)));
+		for (int row = minRow; row <= maxRow; row++) {
+			int base = Math.floorMod(row, CELLS) * CELLS;
+			for (int col = minCol; col <= maxCol; col++) {
+				add(base + Math.floorMod(col, CELLS), index);
+			}
+		}
+	}
+
+	/**
+	 * Finds every participant with an index greater than the given index that
+	 * shares a cell with the bounding box of the given border on the way along
+	 * a move of (moveX, moveY) that brought it there. The indices are left in
+	 * the array returned by getCandidates, sorted in ascending order, and the
+	 * number found is returned.
+	 */
+	public int findCandidates(int index, OutlineGeometry border, double moveX, double moveY) {
+		return findCandidates(index, border, moveX, moveY, search);
+	}
+
+	/**
+	 * Does the same as findCandidates(index, border, moveX, moveY), but uses
+	 * the given Search and leaves the indices in the array returned by its
+	 * getCandidates.
+	 */
+	public int findCandidates(int index, OutlineGeometry border, double moveX, double moveY, Search search) {
+		search.prepare(count);
+		search.nextStamp();
+		int[] marks = search.marks;
+		int stamp = search.stamp;
+		int[] candidates = search.candidates;
+		int found = 0;
+		int minCol = cell(border.getMinX() - Math.max(moveX, 0));
+		int maxCol = span(minCol, cell(border.getMaxX() - Math.min(moveX, 0)));
+		int minRow = cell(border.getMinY() - Math.max(moveY, 0));
+		int maxRow = span(minRow, cell(border.getMaxY() - Math.min(moveY, 0)));
+		for (int row = minRow; row <= maxRow; row++) {
+			int base = Math.floorMod(row, CELLS) * CELLS;
+			for (int col = minCol; col <= maxCol; col++) {
+				int c = base + Math.floorMod(col, CELLS);
+				int[] items = cells[c];
+				for (int k = cellCounts[c] - 1; k >= 0; k--) {
+					int other = items[k];
+					if (other > index && marks[other] != stamp) {
+						marks[other] = stamp;
+						candidates[found++] = other;
+					}
+				}
+			}
+		}
+		Arrays.sort(candidates, 0, found);
+		return found;
+	}
+
+	/**
+	 * Returns the array filled in by the last call to findCandidates.
+	 */
+	public int[] getCandidates() {
+		return search.getCandidates();
+	}
+
+	/**
+	 * Returns the (unwrapped) cell coordinate that contains the given
+	 * coordinate.
+	 */
+	private static int cell(double coordinate) {
+		return (int) Math.floor(coordinate / CELL_SIZE);
+	}
+
+	/**
+	 * Clamps the end of a range of cells so that the range never visits the
+	 * same wrapped cell twice.
+	 */
+	private static int span(int min, int max) {
+		return Math.min(max, min + CELLS - 1);
+	}
+
+	/**
+	 * Appends index to the contents of cell c.
+	 */
+	private void add(int c, int index) {
+		int[] items = cells[c];
+		if (cellCounts[c] == items.length) {
+			items = Arrays.copyOf(items, items.length * 2);
+			cells[c] = items;
+		}
+		items[cellCounts[c]++] = index;
+	}
+}
@@ -0,0 +1,115 @@
+package asteroids;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-size queue of commands, each packed into a non-negative long, that
+ * passes them from exactly one producer thread to exactly one consumer thread
+ * without locking. Neither side ever waits: offer fails when the queue is full
+ * and poll returns -1 when it is empty.
+ *
+ * The producer alone advances tail and the consumer alone advances head.
+ * Each publishes its progress with an ordered write, which makes the slot
+ * written (or emptied) before it visible to the other side.
+ *
+ * Commands that must not be lost, such as input, are added with put instead.
+ * When the slots are full, put keeps the command in an overflow list under a
+ * lock, and every later put goes to that list until poll has emptied it, so
+ * commands are still taken in the order they were put. The lock is only taken
+ * while the queue is overflowing. A producer uses either offer or put, not
+ * both.
+ */
+public class CommandQueue {
+	// The slots, whose number is a power of two
+	private final long[] slots;
+
+	// Mask that turns a position into a slot index
+	private final int mask;
+
+	// Position of the next command to be taken, written only by the consumer
+	private final AtomicLong head;
+
+	// Position of the next command to be added, written only by the producer
+	private final AtomicLong tail;
+
+	// Commands put while the slots were full, oldest first, and whether there
+	// are any. Both are guarded by overflow itself.
+	private final ArrayDeque<Long> overflow;
+	private volatile boolean overflowing;
+
+	/**
+	 * Creates a queue that holds at least capacity commands.
+	 */
+	public CommandQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		slots = new long[size];
+		mask = size - 1;
+		head = new AtomicLong();
+		tail = new AtomicLong();
+		overflow = new ArrayDeque<Long>();
+	}
+
+	/**
+	 * Adds command, which must not be negative, to the queue. Returns false,
+	 * dropping the command, if the queue is full. Called only by the producer.
+	 */
+	public boolean offer(long command) {
+		long t = tail.get();
+		if (t - head.get() == slots.length) {
+			return false;
+		}
+		slots[(int) t & mask] = command;
+		tail.lazySet(t + 1);
+		return true;
+	}
+
+	/**
+	 * Adds command, which must not be negative, to the queue, keeping it in
+	 * the overflow list if the queue is full. The command is never dropped.
+	 * Called only by the producer.
+	 */
+	public void put(long command) {
+		synchronized (overflow) {
+			if (!overflowing && offer(command)) {
+				return;
+			}
+			overflow.add(command);
+			overflowing = true;
+		}
+	}
+
+	/**
+	 * Removes and returns the oldest command, or returns -1 if the queue is
+	 * empty. Called only by the consumer.
+	 */
+	public long poll() {
+		if (overflowing) {
+			// Nothing reaches the slots while the queue overflows, so the
+			// commands in them are older than any in the overflow list
+			synchronized (overflow) {
+				long command = take();
+				if (command < 0 && !overflow.isEmpty()) {
+					command = overflow.poll();
+					overflowing = !overflow.isEmpty();
+				}
+				return command;
+			}
+		}
+		return take();
+	}
+
+	/**
+	 * Removes and returns the oldest command in the slots, or returns -1 if
+	 * there is none.
+	 */
+	private long take() {
+		long h = head.get();
+		if (h == tail.get()) {
+			return -1;
+		}
+		long command = slots[(int) h & mask];
+		head.lazySet(h + 1);
+		return command;
+	}
+}
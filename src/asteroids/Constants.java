@@ -1,16 +1,9 @@
 package asteroids;
 
-import java.util.Random;
-
 /**
  * Provides constants that govern the game.
  */
 public class Constants {
-	/**
-	 * A shared random number generator for general use.
-	 */
-	public final static Random RANDOM = new Random();
-
 	/**
 	 * The height and width of the game area.
 	 */
@@ -47,6 +40,17 @@ public class Constants {
 	 */
 	public final static int FRAME_INTERVAL = 33;
 
+	/**
+	 * The most simulation steps that are run back to back to catch up after a
+	 * delay. Time beyond that is dropped.
+	 */
+	public final static int MAX_CATCH_UP_STEPS = 5;
+
+	/**
+	 * The most frames per second that are rendered.
+	 */
+	public final static int MAX_FRAME_RATE = 120;
+
 	/**
 	 * The number of milliseconds between beats, initially.
 	 */
@@ -94,6 +98,12 @@ public class Constants {
 	 */
 	public final static int BULLET_LIMIT = 8;
 
+	/**
+	 * Upper bound (exclusive), in pixels, of the horizontal and vertical
+	 * extent of a piece of debris.
+	 */
+	public final static int DEBRIS_LENGTH = 20;
+
 	/**
 	 * Scaling factors used for asteroids of size 0, 1, and 2.
 	 */
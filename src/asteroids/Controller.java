@@ -1,15 +1,17 @@
 package asteroids;
 
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Random;
 import javax.swing.*;
 
 import asteroids.participants.Alien;
 import asteroids.participants.Asteroid;
 import asteroids.participants.Beatbox;
 import asteroids.participants.BossAlien;
+import asteroids.participants.Missile;
 import asteroids.participants.Shield;
 import asteroids.participants.Ship;
 import static asteroids.Constants.*;
@@ -36,8 +38,19 @@ public class Controller implements KeyListener, ActionListener {
 	// If it is enhanced
 	private boolean enhanced;
 
-	// When this timer goes off, it is time to refresh the animation
-	private Timer refreshTimer;
+	// Runs the simulation in fixed steps and renders it
+	private GameLoop loop;
+
+	// Key presses and button clicks passed on by the event dispatch thread to
+	// the game loop, or null if there is no game loop
+	private CommandQueue commands;
+
+	// Frames handed over by the game loop to be painted
+	private final TripleBuffer<RenderFrame> frames;
+
+	// Game time, which drives every ParticipantCountdownTimer. It advances
+	// once per step, so it stands still while the game is paused.
+	private GameClock clock;
 
 	// The time at which a transition to a new stage of the game should be made.
 	// A transition is scheduled a few seconds in the future to give the user
@@ -63,21 +76,107 @@ public class Controller implements KeyListener, ActionListener {
 	// placed a shield this round;
 	private boolean shieldRound;
 
-	// The game display
-	private Display display;
+	// The game display, or a view that shows nothing if there is no display
+	private GameView display;
+
+	// The legend shown across the screen
+	private String legend;
+
+	// True while the game is paused
+	private boolean paused;
+
+	// True once the game is over
+	private boolean gameOver;
+
+	// The seed of the current game, and the streams of random numbers split
+	// off it, indexed by RandomStream
+	private long seed;
+	private GameRandom[] streams;
 
 	// set containing all the keys that are currently pressed
 	private HashSet<Integer> keys = new HashSet<Integer>();
 
+	// Records the input to the current game, or null if it is not being
+	// recorded
+	private InputRecorder recorder;
+
+	// File to which each game played on the screen is recorded, named by the
+	// asteroids.record system property, or null if games are not recorded
+	private String recordFile = System.getProperty("asteroids.record");
+
+	// The kinds of command passed to the game loop, in the upper half of each
+	// command. The lower half holds the key code.
+	private final static long PRESS = 0, RELEASE = 1L << 32, START = 2L << 32;
+
+	// Number of commands that can be waiting for the game loop before further
+	// ones are kept under a lock. Input is never dropped.
+	private final static int COMMAND_CAPACITY = 64;
+
 	/**
 	 * Constructs a controller to coordinate the game and screen
 	 */
 	public Controller(Boolean enhanced) {
+		this(enhanced, null);
+
+		// Decode the sounds and start the mixer now, so that the game never
+		// waits for audio when it plays a sound
+		Audio.load();
+
+		// Record the display object
+		Display display = new Display(this);
+		this.display = display;
+
+		// Set up the game loop, which from now on is the only thread to touch
+		// the game
+		commands = new CommandQueue(COMMAND_CAPACITY);
+		loop = new GameLoop(new Runnable() {
+			@Override
+			public void run() {
+				takeCommands();
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				tick();
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				publish();
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				Controller.this.display.refresh();
+			}
+		});
+
+		// Bring up the splash screen and start the game loop
+		splashScreen();
+		publish();
+		display.setVisible(true);
+		loop.start();
+	}
+
+	/**
+	 * Constructs a controller that shows the game through view, or shows
+	 * nothing if view is null. Nothing happens until the game is advanced by
+	 * calling tick, so this can be used to run the game without a display, a
+	 * Swing timer or the event dispatch thread.
+	 */
+	public Controller(boolean enhanced, GameView view) {
 		// Initialize the ParticipantState
 		pstate = new ParticipantState();
 
-		// Set up the refresh timer.
-		refreshTimer = new Timer(FRAME_INTERVAL, this);
+		// Set up the frames that are painted, starting with an empty one
+		frames = new TripleBuffer<RenderFrame>(new RenderFrame(), new RenderFrame(), new RenderFrame());
+		legend = "";
+
+		// Set up the game clock
+		clock = new GameClock();
+
+		// Seed the random numbers used by the splash screen
+		seed(System.nanoTime());
 
 		// Clear the transitionTime
 		transitionTime = Long.MAX_VALUE;
@@ -88,13 +187,40 @@ public class Controller implements KeyListener, ActionListener {
 		// sets level to 1 so 4 asteroids are created on initial screen
 		level = 1;
 
-		// Record the display object
-		display = new Display(this);
+		// Record the view, and bring up the splash screen if there is one
+		if (view != null) {
+			display = view;
+			splashScreen();
+		} else {
+			display = GameView.NONE;
+		}
+	}
 
-		// Bring up the splash screen and start the refresh timer
-		splashScreen();
-		display.setVisible(true);
-		refreshTimer.start();
+	/**
+	 * Sets the seed of the game and splits a stream of random numbers off it
+	 * for each RandomStream.
+	 */
+	private void seed(long seed) {
+		this.seed = seed;
+		GameRandom root = new GameRandom(seed);
+		streams = new GameRandom[RandomStream.values().length];
+		for (RandomStream stream : RandomStream.values()) {
+			streams[stream.ordinal()] = root.split();
+		}
+	}
+
+	/**
+	 * Returns the seed of the current game.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the given stream of random numbers for the current game.
+	 */
+	public GameRandom getRandom(RandomStream stream) {
+		return streams[stream.ordinal()];
 	}
 
 	/**
@@ -153,13 +279,34 @@ public class Controller implements KeyListener, ActionListener {
 		return level;
 	}
 
+	/**
+	 * Sets the legend shown across the screen
+	 */
+	private void setLegend(String legend) {
+		this.legend = legend;
+		display.setLegend(legend);
+	}
+
+	/**
+	 * Shows the current state of the game now, rather than waiting for the
+	 * game loop to get round to it. With a game loop, the state is handed
+	 * over and painted once the loop's current pass is done.
+	 */
+	private void refresh() {
+		if (loop != null) {
+			loop.requestRender();
+		} else {
+			display.refresh();
+		}
+	}
+
 	/**
 	 * Configures the game screen to display the splash screen
 	 */
 	private void splashScreen() {
 		// Clear the screen, reset the level, and display the legend
 		clear();
-		display.setLegend("Asteroids");
+		setLegend("Asteroids");
 
 		// Place four asteroids near the corners of the screen.
 		placeAsteroids();
@@ -169,8 +316,19 @@ public class Controller implements KeyListener, ActionListener {
 	 * The game is over. Displays a message to that effect.
 	 */
 	private void finalScreen() {
-		display.setLegend(GAME_OVER);
-		display.removeKeyListener(this);
+		gameOver = true;
+		setLegend(GAME_OVER);
+		display.stopListening();
+
+		// Save the recording of the game, if one was asked for
+		if (recorder != null && recordFile != null) {
+			recorder.finish(score, level);
+			try {
+				recorder.write(Paths.get(recordFile));
+			} catch (IOException e) {
+				System.err.println("Could not save the recording: " + e.getMessage());
+			}
+		}
 	}
 
 	/**
@@ -188,7 +346,7 @@ public class Controller implements KeyListener, ActionListener {
 		Participant.expire(ship);
 		ship = new Ship(SIZE / 2, SIZE / 2, -Math.PI / 2, this);
 		addParticipant(ship);
-		display.setLegend("");
+		setLegend("");
 		keys.removeAll(keys);
 		if (shield && enhanced) {
 			ship.shieldUp();
@@ -200,7 +358,7 @@ public class Controller implements KeyListener, ActionListener {
 	 * velocities and rotations.
 	 */
 	private void placeAsteroids() {
-		Random r = new Random();
+		GameRandom r = getRandom(RandomStream.ASTEROIDS);
 		resetPlacement();
 		for (int i = 1; i <= getLevel() + 3; i++) {
 			if (placement[0] == false) {
@@ -225,22 +383,23 @@ public class Controller implements KeyListener, ActionListener {
 	 * two at level 4 and above with even probability
 	 */
 	private void placeAlien() {
+		GameRandom r = getRandom(RandomStream.ALIENS);
 		// places a medium alien on the board on level 2
 		if (this.level == 2 && pstate.countAliens() == 0) {
-			alien = new Alien(2, SIZE, RANDOM.nextDouble() * SIZE, 5, this);
-			new ParticipantCountdownTimer(alien, "spawn", ALIEN_DELAY);
+			alien = new Alien(2, SIZE, r.nextDouble() * SIZE, 5, this);
+			new ParticipantCountdownTimer(alien, "spawn", ALIEN_DELAY, this);
 		}
 		// places a small or medium alien on the board with equal probability
 		// after level 3
 		if (!enhanced || level % 5 != 0) {
 			if (this.level >= 3 && pstate.countAliens() == 0) {
-				int y = RANDOM.nextInt(2) + 1;
-				alien = new Alien(y, SIZE, RANDOM.nextDouble() * SIZE, 5, this);
-				new ParticipantCountdownTimer(alien, "spawn", ALIEN_DELAY);
+				int y = r.nextInt(2) + 1;
+				alien = new Alien(y, SIZE, r.nextDouble() * SIZE, 5, this);
+				new ParticipantCountdownTimer(alien, "spawn", ALIEN_DELAY, this);
 			}
 		} else if (level % 5 == 0 && enhanced) {
 			boss = new BossAlien(75, -5, this);
-			new ParticipantCountdownTimer(boss, "spawn", ALIEN_DELAY);
+			new ParticipantCountdownTimer(boss, "spawn", ALIEN_DELAY, this);
 		}
 	}
 
@@ -263,11 +422,64 @@ public class Controller implements KeyListener, ActionListener {
 	 */
 	private void clear() {
 		pstate.clear();
-		display.setLegend("");
+		clock.reset();
+		transitionTime = Long.MAX_VALUE;
+		setLegend("");
 		ship = null;
+		alien = null;
+		boss = null;
 		resetPlacement();
 	}
 
+	/**
+	 * Starts a new game, as if the start button had been pressed.
+	 */
+	public void startGame() {
+		startGame(System.nanoTime());
+	}
+
+	/**
+	 * Starts a new game with the given seed. The same seed and the same input
+	 * always produce the same game.
+	 */
+	public void startGame(long seed) {
+		seed(seed);
+		if (recordFile != null) {
+			recorder = new InputRecorder(seed, enhanced);
+		}
+		initialScreen();
+	}
+
+	/**
+	 * Records the input to the current game with recorder from now on, or
+	 * stops recording if recorder is null.
+	 */
+	public void setRecorder(InputRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Returns the recorder of the input to the current game, or null if it is
+	 * not being recorded.
+	 */
+	public InputRecorder getRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Returns the held controls (see InputRecorder) whose keys are down.
+	 */
+	int getHeldControls() {
+		return InputRecorder.held(keys);
+	}
+
+	/**
+	 * Reports whether the game is over.
+	 */
+	public boolean isGameOver() {
+		return gameOver;
+	}
+
 	/**
 	 * Sets things up and begins a new game.
 	 */
@@ -279,6 +491,7 @@ public class Controller implements KeyListener, ActionListener {
 		clear();
 
 		// Reset statistics
+		gameOver = false;
 		lives = 3;
 		score = 0;
 		level = 1;
@@ -303,16 +516,13 @@ public class Controller implements KeyListener, ActionListener {
 		if (beatbox != null) {
 			Participant.expire(beatbox);
 		}
-		beatbox = new Beatbox();
+		beatbox = new Beatbox(this);
 
-		// Start listening to events (but don't listen twice)
-		display.removeKeyListener(this);
-		display.addKeyListener(this);
+		// Start listening to events and give focus to the game screen
+		display.startListening();
 
-		// Give focus to the game screen
-		display.requestFocusInWindow();
 		// Refresh the display
-		display.refresh();
+		refresh();
 	}
 
 	/**
@@ -322,6 +532,14 @@ public class Controller implements KeyListener, ActionListener {
 		pstate.addParticipant(p);
 	}
 
+	/**
+	 * Returns an expired participant of the given type that can be set up and
+	 * added again, or null if there is none.
+	 */
+	public <T extends Participant> T reuse(Class<T> type) {
+		return pstate.reuse(type);
+	}
+
 	/**
 	 * The ship has been destroyed
 	 */
@@ -362,69 +580,282 @@ public class Controller implements KeyListener, ActionListener {
 	}
 
 	/**
-	 * Schedules a transition m msecs in the future
+	 * Schedules a transition m msecs of game time in the future
 	 */
 	private void scheduleTransition(int m) {
-		transitionTime = System.currentTimeMillis() + m;
+		transitionTime = clock.getTime() + m;
 	}
 
 	/**
-	 * This method will be invoked because of button presses and timer events.
+	 * This method will be invoked because of button presses.
 	 */
 	@Override
 	public void actionPerformed(ActionEvent e) {
 		// The start button has been pressed. Stop whatever we're doing
 		// and bring up the initial screen
 		if (e.getSource() instanceof JButton) {
-			initialScreen();
-		}
-		// Time to refresh the screen and deal with keyboard input
-		else if (e.getSource() == refreshTimer) {
-			// It may be time to make a game transition
-			performTransition();
-
-			// Move the participants to their new locations
-			pstate.moveParticipants();
-			// Check what keys are in the keys set
-			// Perform certain actions according to what is in the set
-			if ((keys.contains(KeyEvent.VK_UP) || keys.contains(KeyEvent.VK_W)) && ship != null) {
-				ship.accelerate();
-			} else if (!(keys.contains(KeyEvent.VK_UP) || keys.contains(KeyEvent.VK_W)) && ship != null) {
-				ship.decelerate();
-			}
-			if ((keys.contains(KeyEvent.VK_LEFT) || keys.contains(KeyEvent.VK_A)) && ship != null) {
-				ship.turnLeft();
-			}
-			if ((keys.contains(KeyEvent.VK_RIGHT) || keys.contains(KeyEvent.VK_D)) && ship != null) {
-				ship.turnRight();
+			if (commands != null) {
+				commands.put(START);
+			} else {
+				startGame();
 			}
+		}
+	}
 
-			// Update the best score so far if enhanced version
-			if (enhanced && score > bestScoreSoFar) {
-				bestScoreSoFar = score;
-			}
+	/**
+	 * Advances the game by one step: moves the participants and deals with
+	 * keyboard input. Called by the game loop every FRAME_INTERVAL
+	 * milliseconds of game time. Does nothing while the game is paused.
+	 */
+	public void tick() {
+		if (recorder != null) {
+			recorder.tickStarted(InputRecorder.held(keys));
+		}
+		if (paused) {
+			return;
+		}
+
+		// Advance game time, completing any countdowns that are due
+		clock.tick();
+
+		// It may be time to make a game transition
+		performTransition();
+
+		// Move the participants to their new locations
+		pstate.moveParticipants();
+		// Check what keys are in the keys set
+		// Perform certain actions according to what is in the set
+		if ((keys.contains(KeyEvent.VK_UP) || keys.contains(KeyEvent.VK_W)) && ship != null) {
+			ship.accelerate();
+		} else if (!(keys.contains(KeyEvent.VK_UP) || keys.contains(KeyEvent.VK_W)) && ship != null) {
+			ship.decelerate();
+		}
+		if ((keys.contains(KeyEvent.VK_LEFT) || keys.contains(KeyEvent.VK_A)) && ship != null) {
+			ship.turnLeft();
+		}
+		if ((keys.contains(KeyEvent.VK_RIGHT) || keys.contains(KeyEvent.VK_D)) && ship != null) {
+			ship.turnRight();
+		}
+
+		// Update the best score so far if enhanced version
+		if (enhanced && score > bestScoreSoFar) {
+			bestScoreSoFar = score;
+		}
 
-			// extra lives
-			if (score >= extraLifeInterval && enhanced) {
-				lives++;
-				extraLifeInterval += 5000;
+		// extra lives
+		if (score >= extraLifeInterval && enhanced) {
+			lives++;
+			extraLifeInterval += 5000;
+		}
+		// places new shield as long as there is a ship on the board
+		if (level > 1 && ship != null && !ship.getShield() && !shieldRound && enhanced) {
+			GameRandom r = getRandom(RandomStream.SHIELDS);
+			if (level % 5 != 0) {
+				Shield s = new Shield(r.nextInt(SIZE), r.nextInt(SIZE));
+				addParticipant(s);
+			} else {
+				Shield s = new Shield(r.nextInt(SIZE), r.nextInt(SIZE));
+				addParticipant(s);
 			}
-			// places new shield as long as there is a ship on the board
-			if (level > 1 && ship != null && !ship.getShield() && !shieldRound && enhanced) {
-				if (level % 5 != 0) {
-					Shield s = new Shield(RANDOM.nextInt(SIZE), RANDOM.nextInt(SIZE));
-					addParticipant(s);
-				} else {
-					Shield s = new Shield(RANDOM.nextInt(SIZE), RANDOM.nextInt(SIZE));
-					addParticipant(s);
-				}
-				shieldRound = true;
+			shieldRound = true;
+		}
+	}
+
+	/**
+	 * Carries out the key presses and button clicks passed on to the game
+	 * loop since it last looked. Called by the game loop on its own thread.
+	 */
+	private void takeCommands() {
+		long command;
+		while ((command = commands.poll()) >= 0) {
+			int keyCode = (int) command;
+			long kind = command & ~0xFFFFFFFFL;
+			if (kind == PRESS) {
+				pressKey(keyCode);
+			} else if (kind == RELEASE) {
+				releaseKey(keyCode);
+			} else if (kind == START) {
+				startGame();
 			}
-			// Refresh screen
-			display.refresh();
 		}
 	}
 
+	/**
+	 * Hands the current state of the game over to be painted. Called by the
+	 * game loop after each pass that changed the game.
+	 */
+	private void publish() {
+		RenderFrame frame = frames.getBack();
+		frame.clear();
+		Iterator<Participant> iter = pstate.getParticipants();
+		while (iter.hasNext()) {
+			iter.next().publish(frame);
+		}
+		int bossHealth = (enhanced && level % 5 == 0 && boss != null) ? boss.getHealth() : -1;
+		frame.setStatus(lives, score, level, bestScoreSoFar, bossHealth, legend);
+		frames.publish();
+	}
+
+	/**
+	 * Returns the frame to be painted: the one most recently handed over by
+	 * the game loop. Without a game loop, the frame is made from the game as
+	 * it stands, so the caller must be the thread that runs the game. The
+	 * frame may be read until the next call.
+	 */
+	public RenderFrame getFrame() {
+		if (loop == null) {
+			publish();
+		}
+		return frames.getLatest();
+	}
+
+	/**
+	 * Returns how far between the last step and the next the current moment
+	 * lies, from 0 to 1, so that motion can be drawn smoothly.
+	 */
+	public double getInterpolation() {
+		return (loop != null) ? loop.getAlpha() : 1;
+	}
+
+	/**
+	 * Records that a frame has been painted.
+	 */
+	public void frameRendered() {
+		if (loop != null) {
+			loop.frameRendered();
+		}
+	}
+
+	/**
+	 * Returns the number of simulation steps run in the last second by the
+	 * game loop, or 0 if there is no game loop.
+	 */
+	public int getTicksPerSecond() {
+		return (loop != null) ? loop.getTicksPerSecond() : 0;
+	}
+
+	/**
+	 * Returns the number of frames painted in the last second.
+	 */
+	public int getFramesPerSecond() {
+		return (loop != null) ? loop.getFramesPerSecond() : 0;
+	}
+
+	/**
+	 * Returns the state of all the participants.
+	 */
+	public ParticipantState getParticipantState() {
+		return pstate;
+	}
+
+	/**
+	 * Returns the clock that drives the countdowns of this game.
+	 */
+	GameClock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Writes the state of the game to snapshot.
+	 */
+	void save(GameSnapshot snapshot) {
+		snapshot.putBoolean(enhanced);
+		snapshot.putLong(seed);
+		for (GameRandom stream : streams) {
+			snapshot.putLong(stream.getState());
+		}
+		snapshot.putInt(lives);
+		snapshot.putLong(score);
+		snapshot.putInt(level);
+		snapshot.putLong(bestScoreSoFar);
+		snapshot.putLong(extraLifeInterval);
+		snapshot.putBoolean(shieldRound);
+		snapshot.putLong(transitionTime);
+		snapshot.putBoolean(paused);
+		snapshot.putBoolean(gameOver);
+		for (boolean placed : placement) {
+			snapshot.putBoolean(placed);
+		}
+		snapshot.putInt(keys.size());
+		for (int keyCode : keys) {
+			snapshot.putInt(keyCode);
+		}
+		snapshot.putInt(Missile.getMissileCount());
+
+		snapshot.putParticipant(ship);
+		snapshot.putParticipant(alien);
+		snapshot.putParticipant(boss);
+		snapshot.putParticipant(beatbox);
+		pstate.save(snapshot);
+		clock.save(snapshot);
+	}
+
+	/**
+	 * Replaces the state of the game with the one written to snapshot by
+	 * save. The game goes on exactly as the saved one would have.
+	 */
+	void restore(GameSnapshot snapshot) {
+		if (alien != null) {
+			alien.stopSound();
+		}
+
+		enhanced = snapshot.getBoolean();
+		seed = snapshot.getLong();
+		for (GameRandom stream : streams) {
+			stream.setState(snapshot.getLong());
+		}
+		lives = snapshot.getInt();
+		score = snapshot.getLong();
+		level = snapshot.getInt();
+		bestScoreSoFar = snapshot.getLong();
+		extraLifeInterval = snapshot.getLong();
+		shieldRound = snapshot.getBoolean();
+		transitionTime = snapshot.getLong();
+		paused = snapshot.getBoolean();
+		gameOver = snapshot.getBoolean();
+		for (int i = 0; i < placement.length; i++) {
+			placement[i] = snapshot.getBoolean();
+		}
+		keys.clear();
+		int count = snapshot.getInt();
+		for (int i = 0; i < count; i++) {
+			keys.add(snapshot.getInt());
+		}
+		Missile.setMissileCount(snapshot.getInt());
+
+		ship = restored(Ship.class, snapshot.getParticipant());
+		alien = restored(Alien.class, snapshot.getParticipant());
+		boss = restored(BossAlien.class, snapshot.getParticipant());
+		beatbox = restored(Beatbox.class, snapshot.getParticipant());
+		pstate.restore(snapshot);
+		clock.restore(snapshot);
+
+		// Show the game as it now stands
+		if (gameOver) {
+			setLegend(GAME_OVER);
+		} else if (paused) {
+			setLegend("PAUSED");
+		} else {
+			setLegend("");
+		}
+		if (loop != null) {
+			loop.setPaused(paused);
+		}
+		refresh();
+	}
+
+	/**
+	 * Returns p, read from a snapshot, as the given type. Throws an
+	 * IllegalArgumentException if it is not null and not of that type.
+	 */
+	private static <T extends Participant> T restored(Class<T> type, Participant p) {
+		if (p != null && !type.isInstance(p)) {
+			throw new IllegalArgumentException("Game snapshot has a " + p.getClass().getSimpleName() + " in place of a "
+					+ type.getSimpleName());
+		}
+		return type.cast(p);
+	}
+
 	/**
 	 * Returns the best score so far in the current game
 	 */
@@ -444,7 +875,7 @@ public class Controller implements KeyListener, ActionListener {
 	 */
 	private void performTransition() {
 		// Do something only if the time has been reached
-		if (transitionTime <= System.currentTimeMillis()) {
+		if (transitionTime <= clock.getTime()) {
 			// Clear the transition time
 			transitionTime = Long.MAX_VALUE;
 			// If there are no lives left, the game is over. Show the final
@@ -485,7 +916,7 @@ public class Controller implements KeyListener, ActionListener {
 		if (beatbox != null) {
 			Participant.expire(beatbox);
 		}
-		beatbox = new Beatbox();
+		beatbox = new Beatbox(this);
 		// place all the new objects for the new level
 		if (enhanced && level % 5 != 0) {
 			placeAsteroids();
@@ -503,30 +934,56 @@ public class Controller implements KeyListener, ActionListener {
 	 */
 	@Override
 	public void keyPressed(KeyEvent e1) {
-		keys.add(e1.getKeyCode());
-		if ((e1.getKeyCode() == KeyEvent.VK_E || e1.getKeyCode() == KeyEvent.VK_SHIFT) && ship != null && enhanced) {
+		if (commands != null) {
+			commands.put(PRESS | e1.getKeyCode());
+		} else {
+			pressKey(e1.getKeyCode());
+		}
+	}
+
+	/**
+	 * Handles the key with the given code (one of the KeyEvent.VK_ constants)
+	 * being pressed. This is how key presses reach the game, whether they come
+	 * from the keyboard or from a script.
+	 */
+	public void pressKey(int keyCode) {
+		if (recorder != null) {
+			recorder.keyPressed(keyCode);
+		}
+		keys.add(keyCode);
+		if ((keyCode == KeyEvent.VK_E || keyCode == KeyEvent.VK_SHIFT) && ship != null && enhanced) {
 			ship.teleport();
 		}
-		if ((e1.getKeyCode() == KeyEvent.VK_S || e1.getKeyCode() == KeyEvent.VK_SPACE
-				|| e1.getKeyCode() == KeyEvent.VK_DOWN) && ship != null && pstate.countBullets() <= BULLET_LIMIT) {
+		if ((keyCode == KeyEvent.VK_S || keyCode == KeyEvent.VK_SPACE || keyCode == KeyEvent.VK_DOWN) && ship != null
+				&& pstate.countBullets() <= BULLET_LIMIT) {
 			ship.fire();
 		}
-		if ((e1.getKeyCode() == KeyEvent.VK_F) && ship != null && alien != null) {
+		if ((keyCode == KeyEvent.VK_F) && ship != null) {
 			ship.fireMissile();
 		}
-		if ((e1.getKeyCode() == KeyEvent.VK_P)) {
-			if (refreshTimer.isRunning()) {
-				display.setLegend("PAUSED");
-				display.refresh();
-				refreshTimer.stop();
+		if ((keyCode == KeyEvent.VK_P)) {
+			if (!paused) {
+				setLegend("PAUSED");
+				refresh();
+				paused = true;
 			} else {
-				display.setLegend("");
-				display.refresh();
-				refreshTimer.start();
+				setLegend("");
+				refresh();
+				paused = false;
+			}
+			if (loop != null) {
+				loop.setPaused(paused);
 			}
 		}
 	}
 
+	/**
+	 * Handles the key with the given code being released.
+	 */
+	public void releaseKey(int keyCode) {
+		keys.remove(keyCode);
+	}
+
 	/**
 	 * Ignore this event.
 	 */
@@ -539,6 +996,10 @@ public class Controller implements KeyListener, ActionListener {
 	 */
 	@Override
 	public void keyReleased(KeyEvent e) {
-		keys.remove(e.getKeyCode());
+		if (commands != null) {
+			commands.put(RELEASE | e.getKeyCode());
+		} else {
+			releaseKey(e.getKeyCode());
+		}
 	}
 }
@@ -8,7 +8,7 @@ import static asteroids.Constants.*;
  * Defines the top-level appearance of an Asteroids game.
  */
 @SuppressWarnings("serial")
-public class Display extends JFrame {
+public class Display extends JFrame implements GameView {
 	// The area where the action takes place
 	private Screen screen;
 
@@ -39,6 +39,24 @@ public class Display extends JFrame {
 	// enhanced displays
 	private boolean enhanced;
 
+	// If true the title shows the achieved tick and frame rates. Turned on by
+	// setting the system property asteroids.stats to true.
+	private boolean showStats;
+
+	// Rates last shown in the title
+	private int shownTicks, shownFrames;
+
+	// Values last shown in the stats, and whether the boss health is showing.
+	// Labels are only given new text when their value changes, since each
+	// change makes Swing lay out the stats again.
+	private int shownLives, shownLevel, shownBossHealth;
+	private long shownScore, shownBest;
+	private boolean bossShown;
+
+	// Number of times the stats have been changed, and the number and time
+	// when the title last showed how often that happens
+	private long statsUpdates, titleUpdates, titleTime;
+
 	/**
 	 * Lays out the game and creates the controller
 	 */
@@ -57,6 +75,7 @@ public class Display extends JFrame {
 
 		// state of enhancement
 		enhanced = controller.getEnhanced();
+		showStats = Boolean.getBoolean("asteroids.stats");
 
 		// This panel contains the screen to prevent the screen from being
 		// resized
@@ -101,6 +120,15 @@ public class Display extends JFrame {
 		// contains the boss health
 		bossHealth = new JLabel();
 
+		// Nothing has been shown yet
+		shownLives = -1;
+		shownLevel = -1;
+		shownBossHealth = -1;
+		shownScore = -1;
+		shownBest = -1;
+		bossShown = false;
+		titleTime = System.nanoTime();
+
 		// Organize everything
 		JPanel mainPanel = new JPanel();
 		mainPanel.setLayout(new BorderLayout());
@@ -115,31 +143,128 @@ public class Display extends JFrame {
 
 	/**
 	 * Called when it is time to update the screen display. This is what drives
-	 * the animation.
+	 * the animation. The values shown are taken from the frame most recently
+	 * handed over by the game loop, never from the game itself. Called on the
+	 * event dispatch thread.
 	 */
+	@Override
 	public void refresh() {
-		lives.setText("Lives: " + controller.getLives() + SPACER);
-		score.setText("Score: " + controller.getScore() + SPACER);
-		level.setText("Level: " + controller.getLevel() + SPACER);
-		if (enhanced) {
-			bestScore.setText("Best: " + controller.getBestSoFar() + SPACER);
+		showStats(controller.getFrame());
+		if (showStats) {
+			showRates();
 		}
-		if (enhanced && controller.getLevel() % 5 == 0) {
-			stats.add(bossHealth);
-			bossHealth.setText("Boss Health: " + controller.getBoss().getHealth() + SPACER);
-		} else if (enhanced && controller.getLevel() % 5 != 0) {
-			try {
-				stats.remove(bossHealth);
-			} catch (NullPointerException e) {
+		screen.repaint();
+	}
+
+	/**
+	 * Shows the values in frame in the stats, changing only the labels whose
+	 * values have changed. The boss health is added to the stats when a boss
+	 * level starts and removed when it ends.
+	 */
+	private void showStats(RenderFrame frame) {
+		if (frame.getLives() != shownLives) {
+			shownLives = frame.getLives();
+			lives.setText("Lives: " + shownLives + SPACER);
+			statsUpdates++;
+		}
+		if (frame.getScore() != shownScore) {
+			shownScore = frame.getScore();
+			score.setText("Score: " + shownScore + SPACER);
+			statsUpdates++;
+		}
+		if (frame.getLevel() != shownLevel) {
+			shownLevel = frame.getLevel();
+			level.setText("Level: " + shownLevel + SPACER);
+			statsUpdates++;
+		}
+		if (enhanced) {
+			if (frame.getBestScore() != shownBest) {
+				shownBest = frame.getBestScore();
+				bestScore.setText("Best: " + shownBest + SPACER);
+				statsUpdates++;
+			}
+			boolean boss = frame.getBossHealth() >= 0;
+			if (boss != bossShown) {
+				bossShown = boss;
+				if (boss) {
+					stats.add(bossHealth);
+				} else {
+					stats.remove(bossHealth);
+				}
+				stats.revalidate();
+				statsUpdates++;
+			}
+			if (boss && frame.getBossHealth() != shownBossHealth) {
+				shownBossHealth = frame.getBossHealth();
+				bossHealth.setText("Boss Health: " + shownBossHealth + SPACER);
+				statsUpdates++;
 			}
 		}
-		screen.repaint();
 	}
 
 	/**
-	 * Sets the large legend
+	 * Returns the number of times the stats have been changed.
 	 */
+	public long getStatsUpdates() {
+		return statsUpdates;
+	}
+
+	/**
+	 * Shows the achieved tick and frame rates in the title if they have
+	 * changed, along with the mean time taken to paint a frame and how often
+	 * the stats have changed since the title was last set.
+	 */
+	private void showRates() {
+		int ticks = controller.getTicksPerSecond();
+		int frames = controller.getFramesPerSecond();
+		if (ticks != shownTicks || frames != shownFrames) {
+			shownTicks = ticks;
+			shownFrames = frames;
+			long now = System.nanoTime();
+			double updates = (statsUpdates - titleUpdates) / ((now - titleTime) / 1e9);
+			titleUpdates = statsUpdates;
+			titleTime = now;
+			setTitle(String.format("%s - %d ticks/s, %d frames/s, %.2f ms/frame, %.1f stats updates/s", TITLE, ticks,
+					frames, screen.getMeanPaintTime() / 1e6, updates));
+		}
+	}
+
+	/**
+	 * Sets the large legend. The screen takes the legend from each frame it
+	 * paints, so there is nothing to do here.
+	 */
+	@Override
 	public void setLegend(String s) {
-		screen.setLegend(s);
+	}
+
+	/**
+	 * Starts passing key presses on to the controller and gives focus to the
+	 * game screen. May be called from any thread.
+	 */
+	@Override
+	public void startListening() {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				// Don't listen twice
+				removeKeyListener(controller);
+				addKeyListener(controller);
+				requestFocusInWindow();
+			}
+		});
+	}
+
+	/**
+	 * Stops passing key presses on to the controller. May be called from any
+	 * thread.
+	 */
+	@Override
+	public void stopListening() {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				removeKeyListener(controller);
+			}
+		});
 	}
 }
@@ -0,0 +1,298 @@
+package asteroids;
+
+import static asteroids.Constants.*;
+
+/**
+ * The clock that drives every {@link asteroids.ParticipantCountdownTimer}.
+ * Time advances only when tick is called, once per frame of the game, so
+ * countdowns stop while the game is paused and their callbacks are made on
+ * the same thread as the rest of the game.
+ *
+ * Pending timers are kept in a hierarchical timing wheel. The first level has
+ * one slot for each of the next 256 ticks, and each further level has 64
+ * slots that each cover a whole turn of the level below. A timer is placed in
+ * the level that fits its delay and moves down a level each time the slot it
+ * is in comes round. Scheduling and cancelling take constant time, and a tick
+ * touches only the timers that are due.
+ */
+public class GameClock {
+	// Number of bits of the tick used to index each level, lowest level first
+	private final static int[] BITS = { 8, 6, 6 };
+
+	// Index of the first list of each level
+	private final static int[] FIRST_LIST = { 0, 256, 320 };
+
+	// Number of lists in the wheel
+	private final static int WHEEL_LISTS = 384;
+
+	// List holding the timers that are being dispatched
+	private final static int FIRING = WHEEL_LISTS;
+
+	// The longest delay, in ticks, that the wheel can represent
+	private final static long MAX_DELAY = (1L << 20) - 1;
+
+	// Number of ticks that have passed
+	private long now;
+
+	// First timer in each list of the wheel, plus the firing list
+	private ParticipantCountdownTimer[] heads;
+
+	// Number of timers that are scheduled
+	private int pending;
+
+	/**
+	 * Creates a clock at time zero with nothing scheduled.
+	 */
+	public GameClock() {
+		now = 0;
+		heads = new ParticipantCountdownTimer[WHEEL_LISTS + 1];
+		pending = 0;
+	}
+
+	/**
+	 * Returns the number of ticks that have passed.
+	 */
+	public long getTicks() {
+		return now;
+	}
+
+	/**
+	 * Returns the game time in milliseconds, which advances by FRAME_INTERVAL
+	 * on every tick.
+	 */
+	public long getTime() {
+		return now * FRAME_INTERVAL;
+	}
+
+	/**
+	 * Returns the number of timers that are scheduled.
+	 */
+	public int getPendingCount() {
+		return pending;
+	}
+
+	/**
+	 * Converts a delay in milliseconds to a whole number of ticks, rounding up
+	 * so that a countdown never completes early. Every delay is at least one
+	 * tick.
+	 */
+	public static long toTicks(int msecs) {
+		return Math.max(1, (msecs + FRAME_INTERVAL - 1) / FRAME_INTERVAL);
+	}
+
+	/**
+	 * Schedules timer to complete msecs milliseconds of game time from now,
+	 * cancelling it first if it is already scheduled.
+	 */
+	public void schedule(ParticipantCountdownTimer timer, int msecs) {
+		scheduleTicks(timer, toTicks(msecs));
+	}
+
+	/**
+	 * Schedules timer to complete the given number of ticks from now (at least
+	 * one), cancelling it first if it is already scheduled.
+	 */
+	public void scheduleTicks(ParticipantCountdownTimer timer, long ticks) {
+		cancel(timer);
+		timer.due = now + Math.max(1, ticks);
+		insert(timer);
+		pending++;
+	}
+
+	/**
+	 * Cancels timer if it is scheduled on this clock.
+	 */
+	public void cancel(ParticipantCountdownTimer timer) {
+		if (timer.list >= 0) {
+			unlink(timer);
+			pending--;
+		}
+	}
+
+	/**
+	 * Cancels every timer.
+	 */
+	public void clear() {
+		for (int list = 0; list <= WHEEL_LISTS; list++) {
+			while (heads[list] != null) {
+				unlink(heads[list]);
+			}
+		}
+		pending = 0;
+	}
+
+	/**
+	 * Cancels every timer and sets the clock back to time zero, as it is for a
+	 * new game.
+	 */
+	public void reset() {
+		clear();
+		now = 0;
+	}
+
+	/**
+	 * Writes the time and the countdowns that are still to complete to
+	 * snapshot. Each countdown is written with the list of the wheel it is in,
+	 * in list order, so that countdowns due on the same tick complete in the
+	 * same order once restored. Countdowns that would be dropped without a
+	 * callback are left out.
+	 */
+	void save(GameSnapshot snapshot) {
+		snapshot.putLong(now);
+		for (int list = 0; list < WHEEL_LISTS; list++) {
+			for (ParticipantCountdownTimer timer = heads[list]; timer != null; timer = timer.next) {
+				if (timer.isLive()) {
+					snapshot.putInt(list);
+					snapshot.putTimer(timer);
+				}
+			}
+		}
+		snapshot.putInt(-1);
+	}
+
+	/**
+	 * Cancels every timer and reads back the time and the countdowns written
+	 * by save.
+	 */
+	void restore(GameSnapshot snapshot) {
+		clear();
+		now = snapshot.getLong();
+		int list;
+		while ((list = snapshot.getInt()) >= 0) {
+			if (list >= WHEEL_LISTS) {
+				throw new IllegalArgumentException("Countdown in game snapshot is in no list");
+			}
+			ParticipantCountdownTimer timer = snapshot.getTimer();
+			if (timer.list >= 0) {
+				throw new IllegalArgumentException("Countdown in game snapshot is scheduled twice");
+			}
+			link(timer, list);
+			pending++;
+		}
+	}
+
+	/**
+	 * Advances the clock by one tick and completes every countdown that is now
+	 * due. Countdowns belonging to expired participants are dropped without a
+	 * callback.
+	 */
+	public void tick() {
+		now++;
+
+		// Move timers down from any higher-level slot that has come round
+		if ((now & 0xFF) == 0) {
+			if ((now & 0x3FFF) == 0) {
+				cascade(2);
+			}
+			cascade(1);
+		}
+
+		// Take everything in the current slot and complete it
+		int slot = (int) (now & 0xFF);
+		while (heads[slot] != null) {
+			ParticipantCountdownTimer timer = heads[slot];
+			unlink(timer);
+			link(timer, FIRING);
+		}
+		while (heads[FIRING] != null) {
+			ParticipantCountdownTimer timer = heads[FIRING];
+			unlink(timer);
+			if (timer.due > now) {
+				insert(timer);
+			} else {
+				pending--;
+				timer.complete();
+			}
+		}
+	}
+
+	/**
+	 * Moves the timers in the current slot of the given level into the levels
+	 * below.
+	 */
+	private void cascade(int level) {
+		int shift = shift(level);
+		int list = FIRST_LIST[level] + (int) ((now >>> shift) & ((1 << BITS[level]) - 1));
+		ParticipantCountdownTimer timer = heads[list];
+		heads[list] = null;
+		while (timer != null) {
+			ParticipantCountdownTimer next = timer.next;
+			timer.list = -1;
+			timer.prev = null;
+			timer.next = null;
+			insert(timer);
+			timer = next;
+		}
+	}
+
+	/**
+	 * Puts timer into the slot of the wheel that fits its due time.
+	 */
+	private void insert(ParticipantCountdownTimer timer) {
+		long due = Math.min(timer.due, now + MAX_DELAY);
+		long delay = due - now;
+		for (int level = 0; level < BITS.length; level++) {
+			int shift = shift(level);
+			if (delay < (1L << (shift + BITS[level]))) {
+				link(timer, FIRST_LIST[level] + (int) ((due >>> shift) & ((1 << BITS[level]) - 1)));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of bits of the tick below those that index the given
+	 * level.
+	 */
+	private static int shift(int level) {
+		int shift = 0;
+		for (int i = 0; i < level; i++) {
+			shift += BITS[i];
+		}
+		return shift;
+	}
+
+	/**
+	 * Appends timer to the end of the given list.
+	 */
+	private void link(ParticipantCountdownTimer timer, int list) {
+		ParticipantCountdownTimer head = heads[list];
+		timer.list = list;
+		if (head == null) {
+			timer.prev = timer;
+			timer.next = null;
+			heads[list] = timer;
+		} else {
+			// The head's prev is the tail of the list
+			ParticipantCountdownTimer tail = head.prev;
+			tail.next = timer;
+			timer.prev = tail;
+			timer.next = null;
+			head.prev = timer;
+		}
+	}
+
+	/**
+	 * Removes timer from whatever list it is in.
+	 */
+	private void unlink(ParticipantCountdownTimer timer) {
+		int list = timer.list;
+		ParticipantCountdownTimer head = heads[list];
+		if (timer == head) {
+			heads[list] = timer.next;
+			if (timer.next != null) {
+				timer.next.prev = timer.prev;
+			}
+		} else {
+			timer.prev.next = timer.next;
+			if (timer.next != null) {
+				timer.next.prev = timer.prev;
+			} else {
+				head.prev = timer.prev;
+			}
+		}
+		timer.list = -1;
+		timer.prev = null;
+		timer.next = null;
+	}
+}
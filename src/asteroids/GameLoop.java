@@ -0,0 +1,259 @@
+package asteroids;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+import static asteroids.Constants.*;
+
+/**
+ * Runs the game on a thread of its own. The simulation advances in fixed steps
+ * of FRAME_INTERVAL milliseconds no matter how long painting takes: real time
+ * is added to an accumulator, and as many steps are run as the accumulator
+ * holds, up to MAX_CATCH_UP_STEPS at a time. Rendering is requested after each
+ * pass through the loop, at up to MAX_FRAME_RATE frames per second, and is
+ * skipped while the previous frame is still waiting to be painted.
+ *
+ * The steps run on the loop's own thread, which is the only thread that
+ * changes the state of the game. Before each pass, even while paused, the loop
+ * runs input to take the key presses passed on by the event dispatch thread.
+ * After each pass that advanced the game, or when asked to by requestRender,
+ * it runs publish to hand the new state over for painting. Only the render
+ * runs on the event dispatch thread, and it paints whatever state was handed
+ * over last, so neither thread ever waits for the other. The loop also
+ * measures the rates it achieves.
+ */
+public class GameLoop implements Runnable {
+	// Length of a simulation step in nanoseconds
+	private final static long STEP = FRAME_INTERVAL * 1000000L;
+
+	// Shortest time between render requests in nanoseconds
+	private final static long RENDER_INTERVAL = 1000000000L / MAX_FRAME_RATE;
+
+	// Length of the window over which rates are measured in nanoseconds
+	private final static long RATE_WINDOW = 1000000000L;
+
+	// Takes the input passed on since the last pass
+	private final Runnable input;
+
+	// Advances the simulation by one step
+	private final Runnable step;
+
+	// Hands the current state over for painting
+	private final Runnable publish;
+
+	// Renders the state handed over last, on the event dispatch thread
+	private final Runnable render;
+
+	// True while a render has been requested but not finished
+	private final AtomicBoolean renderPending;
+
+	// True if the state is to be handed over and painted after the current
+	// pass even if the game does not advance
+	private volatile boolean renderWanted;
+
+	// The thread running the loop, or null if it is not running
+	private volatile Thread thread;
+
+	// True if the simulation is paused
+	private volatile boolean paused;
+
+	// Unsimulated time, and the time at which it was measured
+	private volatile long accumulator;
+	private volatile long accumulatorTime;
+
+	// Counts of steps and painted frames in the current measurement window,
+	// and the rates measured over the last complete window
+	private int ticks, frames;
+	private volatile int ticksPerSecond, framesPerSecond;
+	private long windowStart;
+
+	/**
+	 * Creates a loop that calls input to take input, step to advance the
+	 * simulation and publish to hand its state over, all on the loop's thread,
+	 * and render to display that state on the event dispatch thread. The loop
+	 * does nothing until it is started.
+	 */
+	public GameLoop(Runnable input, Runnable step, Runnable publish, Runnable render) {
+		this.input = input;
+		this.step = step;
+		this.publish = publish;
+		this.render = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					render.run();
+				} finally {
+					renderPending.set(false);
+				}
+			}
+		};
+		renderPending = new AtomicBoolean(false);
+		renderWanted = false;
+		paused = false;
+	}
+
+	/**
+	 * Starts the loop if it is not already running.
+	 */
+	public synchronized void start() {
+		if (thread == null) {
+			thread = new Thread(this, "Game loop");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Stops the loop.
+	 */
+	public synchronized void stop() {
+		if (thread != null) {
+			thread.interrupt();
+			thread = null;
+		}
+	}
+
+	/**
+	 * Pauses or resumes the simulation. Nothing is rendered while paused
+	 * unless requestRender is called, and time spent paused is not made up
+	 * afterwards.
+	 */
+	public void setPaused(boolean paused) {
+		this.paused = paused;
+	}
+
+	/**
+	 * Asks for the state of the game to be handed over and painted after the
+	 * current pass, even if the game is paused or does not advance.
+	 */
+	public void requestRender() {
+		renderWanted = true;
+	}
+
+	/**
+	 * Reports whether the simulation is paused.
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Returns how far the current moment lies between the last step and the
+	 * next one, from 0 to 1. This is used to interpolate positions when
+	 * drawing.
+	 */
+	public double getAlpha() {
+		if (paused) {
+			return 1;
+		}
+		double alpha = (accumulator + (System.nanoTime() - accumulatorTime)) / (double) STEP;
+		return Math.max(0, Math.min(1, alpha));
+	}
+
+	/**
+	 * Returns the number of simulation steps run in the last second.
+	 */
+	public int getTicksPerSecond() {
+		return ticksPerSecond;
+	}
+
+	/**
+	 * Returns the number of frames painted in the last second.
+	 */
+	public int getFramesPerSecond() {
+		return framesPerSecond;
+	}
+
+	/**
+	 * Records that a frame has been painted.
+	 */
+	public synchronized void frameRendered() {
+		frames++;
+	}
+
+	/**
+	 * Runs the loop until it is stopped.
+	 */
+	@Override
+	public void run() {
+		long last = System.nanoTime();
+		long lastRender = last;
+		boolean frameWaiting = false;
+		windowStart = last;
+		while (thread == Thread.currentThread()) {
+			long now = System.nanoTime();
+			long elapsed = now - last;
+			last = now;
+
+			runSafely(input);
+			boolean changed = renderWanted;
+			renderWanted = false;
+			if (paused) {
+				accumulator = 0;
+			} else {
+				// Work out how many steps are due, dropping any backlog beyond
+				// what may be caught up at once
+				long time = accumulator + elapsed;
+				int steps = (int) Math.min(time / STEP, MAX_CATCH_UP_STEPS);
+				time = (steps == MAX_CATCH_UP_STEPS) ? Math.min(time - steps * STEP, STEP - 1) : time - steps * STEP;
+				for (int i = 0; i < steps && !paused; i++) {
+					runSafely(step);
+					ticks++;
+					changed = true;
+				}
+				accumulator = time;
+				accumulatorTime = now;
+			}
+
+			// Hand over the new state, and request a frame if one is due and
+			// the last one has been painted. While paused, a frame is only
+			// due when there is a new state to show.
+			if (changed) {
+				runSafely(publish);
+				frameWaiting = true;
+			}
+			boolean due = paused ? frameWaiting : (now - lastRender >= RENDER_INTERVAL);
+			if (due && renderPending.compareAndSet(false, true)) {
+				lastRender = now;
+				frameWaiting = false;
+				SwingUtilities.invokeLater(render);
+			}
+			measureRates(now);
+
+			// Wait until the next step or frame is due
+			long untilStep = STEP - accumulator;
+			long untilRender = RENDER_INTERVAL - (now - lastRender);
+			long wait = Math.max(1000000L, Math.min(untilStep, untilRender));
+			try {
+				Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Runs task on the loop's thread. Exceptions thrown by the task are
+	 * reported and the loop carries on, as Swing does for its own events.
+	 */
+	private void runSafely(Runnable task) {
+		try {
+			task.run();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Updates the measured rates once per window.
+	 */
+	private synchronized void measureRates(long now) {
+		if (now - windowStart >= RATE_WINDOW) {
+			double seconds = (now - windowStart) / 1e9;
+			ticksPerSecond = (int) Math.round(ticks / seconds);
+			framesPerSecond = (int) Math.round(frames / seconds);
+			ticks = 0;
+			frames = 0;
+			windowStart = now;
+		}
+	}
+}
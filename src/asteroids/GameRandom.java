@@ -0,0 +1,96 @@
+package asteroids;
+
+/**
+ * A source of random numbers for one game. Unlike java.util.Random, the whole
+ * state is a single long that can be read and set, so a game can be saved
+ * and resumed exactly, and new independent streams can be split off it, so
+ * that each part of the game can draw numbers without changing what the other
+ * parts see.
+ *
+ * The numbers are generated by SplitMix64, which passes the usual statistical
+ * tests and is very cheap. A GameRandom is meant to be used by one thread at a
+ * time and does no locking.
+ */
+public class GameRandom {
+	// The step added to the state for each number
+	private final static long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	// The state, which determines every number to come
+	private long state;
+
+	/**
+	 * Creates a source of numbers that is determined by seed.
+	 */
+	public GameRandom(long seed) {
+		state = seed;
+	}
+
+	/**
+	 * Returns the current state.
+	 */
+	public long getState() {
+		return state;
+	}
+
+	/**
+	 * Sets the state to one returned earlier by getState, so that the same
+	 * numbers are generated again from that point.
+	 */
+	public void setState(long state) {
+		this.state = state;
+	}
+
+	/**
+	 * Returns a new source of numbers whose seed is drawn from this one. The
+	 * two go on to produce unrelated sequences.
+	 */
+	public GameRandom split() {
+		return new GameRandom(nextLong());
+	}
+
+	/**
+	 * Returns a random long, with every value equally likely.
+	 */
+	public long nextLong() {
+		state += GOLDEN_GAMMA;
+		long z = state;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Returns a random int from 0 up to but not including bound, with every
+	 * value equally likely. Throws an IllegalArgumentException if bound is not
+	 * positive.
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+
+		// Take 31 bits, rejecting the few values that would make the
+		// remainders uneven
+		int bits = (int) (nextLong() >>> 33);
+		int value = bits % bound;
+		while (bits - value + (bound - 1) < 0) {
+			bits = (int) (nextLong() >>> 33);
+			value = bits % bound;
+		}
+		return value;
+	}
+
+	/**
+	 * Returns a random double from 0 up to but not including 1.
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Returns true or false with equal probability.
+	 */
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+}
@@ -0,0 +1,343 @@
+package asteroids;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import asteroids.participants.ParticipantType;
+
+/**
+ * Saves the complete state of a game into a ByteBuffer and restores a game
+ * from one exactly, so that it goes on as if it had never stopped. This
+ * serves for saving and resuming games, for rolling a game back, and for
+ * finding where two replays of a game part ways.
+ *
+ * A snapshot holds everything that decides how the game goes on: the fields
+ * of the controller, the state of every stream of random numbers, every
+ * participant in the game or waiting to join it, the time on the clock, and
+ * every countdown that is still to complete, in the order in which they will
+ * complete. It does not hold what has only to do with how the game is shown
+ * or heard.
+ *
+ * The controller, the participants, the clock and the countdowns each write
+ * and read their own fields through the put and get methods. A participant or
+ * countdown is written in full where it is first met and by number after
+ * that, so that those met more than once (such as the ship, which is both in
+ * the game and known to the controller) are restored as one object.
+ *
+ * The same GameSnapshot, along with its buffer and its tables, is reused from
+ * one save to the next, so the buffer is only allocated again when a
+ * snapshot outgrows it.
+ * Snapshots must be taken and restored between ticks, on the thread that runs
+ * the game.
+ */
+public class GameSnapshot {
+	// Bytes at the start of every snapshot, and the version of the layout
+	private final static byte[] MAGIC = { 'A', 'S', 'N', 'P' };
+	private final static int VERSION = 1;
+
+	// Written in place of a number for a null reference, and before an
+	// object that is being written for the first time
+	private final static int NULL = -1;
+	private final static int NEW = -2;
+
+	// The snapshot most recently saved, or the one being built
+	private ByteBuffer buffer;
+
+	// The buffer that is being read during a restore
+	private ByteBuffer in;
+
+	// The controller being saved or restored
+	private Controller controller;
+
+	// The participants and countdowns met so far in the snapshot being
+	// written or read, in order, and the numbers given to them while writing
+	private final ArrayList<Participant> participants;
+	private final IdentityHashMap<Participant, Integer> participantNumbers;
+	private final ArrayList<ParticipantCountdownTimer> timers;
+	private final IdentityHashMap<ParticipantCountdownTimer, Integer> timerNumbers;
+
+	/**
+	 * Creates an empty snapshot.
+	 */
+	public GameSnapshot() {
+		buffer = ByteBuffer.allocate(16384);
+		buffer.flip();
+		participants = new ArrayList<Participant>();
+		participantNumbers = new IdentityHashMap<Participant, Integer>();
+		timers = new ArrayList<ParticipantCountdownTimer>();
+		timerNumbers = new IdentityHashMap<ParticipantCountdownTimer, Integer>();
+	}
+
+	/**
+	 * Saves the state of the game run by controller, replacing the snapshot
+	 * held before. Returns the buffer holding the snapshot, positioned at its
+	 * start. The buffer is reused by the next save, so it must be copied if
+	 * the snapshot is to be kept.
+	 */
+	public ByteBuffer save(Controller controller) {
+		this.controller = controller;
+		buffer.clear();
+		try {
+			room(MAGIC.length + 4);
+			buffer.put(MAGIC);
+			buffer.putInt(VERSION);
+			controller.save(this);
+		} finally {
+			forget();
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Restores the game run by controller to the state held by the snapshot
+	 * most recently saved.
+	 */
+	public void restore(Controller controller) {
+		ByteBuffer data = buffer.duplicate();
+		data.position(0);
+		restore(controller, data);
+	}
+
+	/**
+	 * Restores the game run by controller to the state held by the snapshot in
+	 * data, starting at its position, and leaves data positioned after the
+	 * snapshot. Throws an IllegalArgumentException if data does not hold a
+	 * snapshot of this version, in which case the game may have been left
+	 * partly restored.
+	 */
+	public void restore(Controller controller, ByteBuffer data) {
+		this.controller = controller;
+		in = data;
+		try {
+			byte[] magic = new byte[MAGIC.length];
+			in.get(magic);
+			if (!Arrays.equals(magic, MAGIC)) {
+				throw new IllegalArgumentException("Not a game snapshot");
+			}
+			if (in.getInt() != VERSION) {
+				throw new IllegalArgumentException("Unknown version of game snapshot");
+			}
+			controller.restore(this);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Game snapshot is cut short", e);
+		} finally {
+			in = null;
+			forget();
+		}
+	}
+
+	/**
+	 * Returns the controller being saved or restored. Participants that keep a
+	 * controller take it from here when they are restored.
+	 */
+	public Controller getController() {
+		return controller;
+	}
+
+	/**
+	 * Writes an int.
+	 */
+	public void putInt(int value) {
+		room(4);
+		buffer.putInt(value);
+	}
+
+	/**
+	 * Reads an int.
+	 */
+	public int getInt() {
+		return in.getInt();
+	}
+
+	/**
+	 * Writes a long.
+	 */
+	public void putLong(long value) {
+		room(8);
+		buffer.putLong(value);
+	}
+
+	/**
+	 * Reads a long.
+	 */
+	public long getLong() {
+		return in.getLong();
+	}
+
+	/**
+	 * Writes a double, exactly.
+	 */
+	public void putDouble(double value) {
+		room(8);
+		buffer.putDouble(value);
+	}
+
+	/**
+	 * Reads a double.
+	 */
+	public double getDouble() {
+		return in.getDouble();
+	}
+
+	/**
+	 * Writes a boolean.
+	 */
+	public void putBoolean(boolean value) {
+		room(1);
+		buffer.put((byte) (value ? 1 : 0));
+	}
+
+	/**
+	 * Reads a boolean.
+	 */
+	public boolean getBoolean() {
+		return in.get() != 0;
+	}
+
+	/**
+	 * Writes a string, which may be null.
+	 */
+	public void putString(String value) {
+		if (value == null) {
+			putInt(NULL);
+		} else {
+			putInt(value.length());
+			room(2 * value.length());
+			for (int i = 0; i < value.length(); i++) {
+				buffer.putChar(value.charAt(i));
+			}
+		}
+	}
+
+	/**
+	 * Reads a string, which may be null.
+	 */
+	public String getString() {
+		int length = in.getInt();
+		if (length == NULL) {
+			return null;
+		}
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = in.getChar();
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Writes a countdown, which may be null, along with its participant and
+	 * payload. The payload must be a string or null.
+	 */
+	public void putTimer(ParticipantCountdownTimer timer) {
+		if (timer == null) {
+			putInt(NULL);
+			return;
+		}
+		Integer number = timerNumbers.get(timer);
+		if (number != null) {
+			putInt(number);
+			return;
+		}
+		Object payload = timer.getPayload();
+		if (payload != null && !(payload instanceof String)) {
+			throw new IllegalArgumentException("Only countdowns with string payloads can be saved");
+		}
+		putInt(NEW);
+		timerNumbers.put(timer, timers.size());
+		timers.add(timer);
+		putParticipant(timer.getParticipant());
+		putString((String) payload);
+		putLong(timer.due);
+	}
+
+	/**
+	 * Reads a countdown, which may be null. A countdown read for the first
+	 * time is not scheduled until the clock is restored.
+	 */
+	public ParticipantCountdownTimer getTimer() {
+		int number = in.getInt();
+		if (number == NULL) {
+			return null;
+		} else if (number != NEW) {
+			return timers.get(number);
+		}
+		ParticipantCountdownTimer timer = new ParticipantCountdownTimer();
+		timers.add(timer);
+		Participant p = getParticipant();
+		String payload = getString();
+		long due = in.getLong();
+		timer.restore(p, payload, controller.getClock(), due);
+		return timer;
+	}
+
+	/**
+	 * Writes a participant, which may be null. Throws an
+	 * IllegalArgumentException if it is not of a type that can be saved.
+	 */
+	void putParticipant(Participant p) {
+		if (p == null) {
+			putInt(NULL);
+			return;
+		}
+		Integer number = participantNumbers.get(p);
+		if (number != null) {
+			putInt(number);
+			return;
+		}
+		putInt(NEW);
+		putInt(ParticipantType.of(p).ordinal());
+		participantNumbers.put(p, participants.size());
+		participants.add(p);
+		p.save(this);
+	}
+
+	/**
+	 * Reads a participant, which may be null.
+	 */
+	Participant getParticipant() {
+		int number = in.getInt();
+		if (number == NULL) {
+			return null;
+		} else if (number != NEW) {
+			return participants.get(number);
+		}
+		ParticipantType[] types = ParticipantType.values();
+		int type = in.getInt();
+		if (type < 0 || type >= types.length) {
+			throw new IllegalArgumentException("Unknown type of participant in game snapshot");
+		}
+		Participant p = types[type].create();
+		participants.add(p);
+		p.restore(this);
+		p.restoreBorder();
+		return p;
+	}
+
+	/**
+	 * Lets go of the participants and countdowns met during the last save or
+	 * restore.
+	 */
+	private void forget() {
+		controller = null;
+		participants.clear();
+		participantNumbers.clear();
+		timers.clear();
+		timerNumbers.clear();
+	}
+
+	/**
+	 * Makes sure the buffer has room for the given number of bytes.
+	 */
+	private void room(int bytes) {
+		if (buffer.remaining() < bytes) {
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+	}
+}
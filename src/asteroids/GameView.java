@@ -0,0 +1,51 @@
+package asteroids;
+
+/**
+ * Something that shows a game to the player. The controller tells its view
+ * when there is something new to show and when it should start and stop
+ * passing key presses on, but otherwise knows nothing about how the game is
+ * shown. A Display is the usual view; NONE shows nothing and is used when the
+ * game is run without a display.
+ */
+public interface GameView {
+	/**
+	 * A view that shows nothing
+	 */
+	public final static GameView NONE = new GameView() {
+		@Override
+		public void setLegend(String s) {
+		}
+
+		@Override
+		public void refresh() {
+		}
+
+		@Override
+		public void startListening() {
+		}
+
+		@Override
+		public void stopListening() {
+		}
+	};
+
+	/**
+	 * Sets the large legend
+	 */
+	public void setLegend(String s);
+
+	/**
+	 * Shows the current state of the game.
+	 */
+	public void refresh();
+
+	/**
+	 * Starts passing key presses on to the controller.
+	 */
+	public void startListening();
+
+	/**
+	 * Stops passing key presses on to the controller.
+	 */
+	public void stopListening();
+}
@@ -0,0 +1,148 @@
+package asteroids;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Runs a game of Asteroids with no window, no sound and no game loop. The game
+ * is advanced one tick at a time as fast as the machine allows, with key
+ * presses coming from an InputSource instead of the keyboard. The levels,
+ * lives, transitions and scoring are exactly those of the game that is shown
+ * on the screen, which makes this useful for testing and for measuring how
+ * fast the simulation itself runs.
+ */
+public class HeadlessGame {
+	// The controller running the game
+	private Controller controller;
+
+	// Where key presses come from
+	private InputSource input;
+
+	// Number of ticks run so far
+	private long ticks;
+
+	/**
+	 * Sets up a new game, ready to run, that takes its input from input. Sound
+	 * is detached, since nobody is there to hear it.
+	 */
+	public HeadlessGame(boolean enhanced, InputSource input) {
+		this(enhanced, input, System.nanoTime());
+	}
+
+	/**
+	 * Sets up a new game with the given seed. Two games with the same seed and
+	 * the same input play out exactly the same.
+	 */
+	public HeadlessGame(boolean enhanced, InputSource input, long seed) {
+		Audio.detach();
+		this.input = input;
+		controller = new Controller(enhanced, null);
+		controller.startGame(seed);
+		ticks = 0;
+	}
+
+	/**
+	 * Returns the controller running the game.
+	 */
+	public Controller getController() {
+		return controller;
+	}
+
+	/**
+	 * Returns the number of ticks run so far.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Runs one tick of the game, first supplying whatever input is due.
+	 * Returns false if the input has run out.
+	 */
+	public boolean tick() {
+		boolean more = input.supply(ticks + 1, controller);
+		controller.tick();
+		ticks++;
+		return more;
+	}
+
+	/**
+	 * Runs the game until it is over, the input runs out, or maxTicks ticks
+	 * have been run in all. Returns the number of ticks run by this call.
+	 */
+	public long run(long maxTicks) {
+		long start = ticks;
+		while (ticks < maxTicks && !controller.isGameOver()) {
+			if (!tick()) {
+				break;
+			}
+		}
+		return ticks - start;
+	}
+
+	/**
+	 * Plays a game on autopilot and reports how it went. The arguments are
+	 * options: -enhanced plays the enhanced game, -ticks n stops after n ticks
+	 * (100000 by default), -seed n seeds both the game and the autopilot's
+	 * moves, so that the same seed always plays the same game, and -record
+	 * file saves the input for InputReplay.
+	 */
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+		boolean enhanced = false;
+		long maxTicks = 100000;
+		long seed = 0;
+		String recordFile = null;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-enhanced")) {
+				enhanced = true;
+			} else if (args[i].equals("-ticks") && i + 1 < args.length) {
+				maxTicks = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-seed") && i + 1 < args.length) {
+				seed = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-record") && i + 1 < args.length) {
+				recordFile = args[++i];
+			} else {
+				System.err.println("Usage: HeadlessGame [-enhanced] [-ticks n] [-seed n] [-record file]");
+				return;
+			}
+		}
+
+		HeadlessGame game = new HeadlessGame(enhanced, ScriptedInput.autopilot(maxTicks, seed), seed);
+		InputRecorder recorder = null;
+		if (recordFile != null) {
+			recorder = new InputRecorder(seed, enhanced);
+			game.getController().setRecorder(recorder);
+		}
+		long start = System.nanoTime();
+		long ticks = game.run(maxTicks);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		Controller controller = game.getController();
+		System.out.println("Ticks:     " + ticks + (controller.isGameOver() ? " (game over)" : ""));
+		System.out.println("Score:     " + controller.getScore());
+		System.out.println("Level:     " + controller.getLevel());
+		System.out.println("Lives:     " + controller.getLives());
+		ParticipantPool pool = controller.getParticipantState().getPool();
+		System.out.println("Reused:    " + pool.getHits() + " of " + (pool.getHits() + pool.getMisses())
+				+ " short-lived participants");
+		ParticipantState state = controller.getParticipantState();
+		long tested = 0;
+		for (OverlapStage stage : OverlapStage.values()) {
+			tested += state.getOverlapTotal(stage);
+		}
+		System.out.print("Overlaps:  " + tested + " pairs tested, settled by");
+		for (OverlapStage stage : OverlapStage.values()) {
+			System.out.printf(" %s %.1f%%", stage.name().toLowerCase().replace('_', ' '),
+					100.0 * state.getOverlapTotal(stage) / Math.max(1, tested));
+		}
+		System.out.println();
+		System.out.printf("Speed:     %.0f ticks/s (%.1f times real time)%n", ticks / seconds,
+				ticks * Constants.FRAME_INTERVAL / (seconds * 1000));
+		if (recorder != null) {
+			recorder.finish(controller.getScore(), controller.getLevel());
+			recorder.write(Paths.get(recordFile));
+			System.out.println("Recorded:  " + recorder.toBuffer().remaining() + " bytes to " + recordFile);
+		}
+	}
+}
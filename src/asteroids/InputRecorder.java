@@ -0,0 +1,259 @@
+package asteroids;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Records the input to a game so that an InputReplay can play the same game
+ * again. Together with the seed, the input is all it takes: the game is
+ * otherwise deterministic.
+ *
+ * Two kinds of input are recorded for each tick. The first is which of the
+ * held controls (thrust, turn left and turn right) are down when the tick
+ * starts. The second is the actions (fire, missile, teleport and pause) that
+ * were pressed since the previous tick, in order. The keys behind them do not
+ * matter and are not recorded.
+ *
+ * A recording is laid out as follows. Every number marked varint is an
+ * unsigned LEB128 varint.
+ * <ul>
+ * <li>the bytes "AREC", a version byte, and a flags byte (bit 0 is set for
+ * the enhanced game)</li>
+ * <li>the seed, as an eight-byte big-endian long</li>
+ * <li>any number of runs, each starting with the varint (count &lt;&lt; 4) |
+ * (held &lt;&lt; 1) | actions. count ticks in a row have the held controls
+ * given by the bits of held. If the actions bit is set, a varint number of
+ * actions follows, one byte each, which come before the first tick of the
+ * run.</li>
+ * <li>the varint 0, ending the runs</li>
+ * <li>the number of ticks, the final score and the final level, as
+ * varints</li>
+ * </ul>
+ * A game with long stretches of the same held keys and no actions therefore
+ * takes only a byte or two for each stretch.
+ */
+public class InputRecorder {
+	/**
+	 * The bits of the held controls
+	 */
+	public final static int THRUST = 1, TURN_LEFT = 2, TURN_RIGHT = 4;
+
+	/**
+	 * The codes of the actions
+	 */
+	public final static int FIRE = 0, MISSILE = 1, TELEPORT = 2, PAUSE = 3;
+
+	// Bytes at the start of every recording, and the version of the layout
+	final static byte[] MAGIC = { 'A', 'R', 'E', 'C' };
+	final static byte VERSION = 1;
+
+	// The held controls and the number of ticks in the run being built, or
+	// zero ticks if no run has started
+	private int runHeld;
+	private long runCount;
+
+	// The actions taken before the first tick of the run being built, and how
+	// many there are
+	private byte[] runActions;
+	private int runActionCount;
+
+	// The actions taken since the last tick, and how many there are
+	private byte[] actions;
+	private int actionCount;
+
+	// The recording so far
+	private ByteBuffer buffer;
+
+	// Number of ticks recorded
+	private long ticks;
+
+	// True once finish has been called
+	private boolean finished;
+
+	/**
+	 * Starts recording a game with the given seed.
+	 */
+	public InputRecorder(long seed, boolean enhanced) {
+		buffer = ByteBuffer.allocate(4096);
+		buffer.put(MAGIC);
+		buffer.put(VERSION);
+		buffer.put((byte) (enhanced ? 1 : 0));
+		buffer.putLong(seed);
+		actions = new byte[8];
+		actionCount = 0;
+		runActions = new byte[8];
+		runActionCount = 0;
+		runCount = 0;
+		ticks = 0;
+		finished = false;
+	}
+
+	/**
+	 * Returns the held controls that are down among the given keys, which are
+	 * identified by their KeyEvent.VK_ codes.
+	 */
+	public static int held(Iterable<Integer> keys) {
+		int held = 0;
+		for (int keyCode : keys) {
+			if (keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_W) {
+				held |= THRUST;
+			} else if (keyCode == KeyEvent.VK_LEFT || keyCode == KeyEvent.VK_A) {
+				held |= TURN_LEFT;
+			} else if (keyCode == KeyEvent.VK_RIGHT || keyCode == KeyEvent.VK_D) {
+				held |= TURN_RIGHT;
+			}
+		}
+		return held;
+	}
+
+	/**
+	 * Returns the action taken by pressing the key with the given code, or -1
+	 * if it takes none.
+	 */
+	public static int action(int keyCode) {
+		switch (keyCode) {
+		case KeyEvent.VK_S:
+		case KeyEvent.VK_SPACE:
+		case KeyEvent.VK_DOWN:
+			return FIRE;
+		case KeyEvent.VK_F:
+			return MISSILE;
+		case KeyEvent.VK_E:
+		case KeyEvent.VK_SHIFT:
+			return TELEPORT;
+		case KeyEvent.VK_P:
+			return PAUSE;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * Records that the key with the given code was pressed. Called by the
+	 * controller.
+	 */
+	void keyPressed(int keyCode) {
+		int action = action(keyCode);
+		if (action >= 0 && !finished) {
+			if (actionCount == actions.length) {
+				actions = Arrays.copyOf(actions, actionCount * 2);
+			}
+			actions[actionCount++] = (byte) action;
+		}
+	}
+
+	/**
+	 * Records that a tick is starting with the given controls held. Called by
+	 * the controller.
+	 */
+	void tickStarted(int held) {
+		if (finished) {
+			return;
+		}
+		// A new run starts whenever the held controls change or there are
+		// actions to go before the tick
+		if (actionCount > 0 || held != runHeld || runCount == 0) {
+			endRun();
+			runHeld = held;
+			byte[] swap = runActions;
+			runActions = actions;
+			runActionCount = actionCount;
+			actions = swap;
+			actionCount = 0;
+		}
+		runCount++;
+		ticks++;
+	}
+
+	/**
+	 * Returns the number of ticks recorded.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Stops recording and notes the score and level the game reached, which
+	 * a replay will be checked against.
+	 */
+	public void finish(long score, int level) {
+		if (!finished) {
+			endRun();
+			putVarint(0);
+			putVarint(ticks);
+			putVarint(score);
+			putVarint(level);
+			finished = true;
+		}
+	}
+
+	/**
+	 * Returns the finished recording, ready to be read.
+	 */
+	public ByteBuffer toBuffer() {
+		if (!finished) {
+			throw new IllegalStateException("The recording has not been finished");
+		}
+		ByteBuffer result = buffer.duplicate();
+		result.flip();
+		return result;
+	}
+
+	/**
+	 * Writes the finished recording to a file, replacing whatever it held.
+	 */
+	public void write(Path path) throws IOException {
+		ByteBuffer data = toBuffer();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (data.hasRemaining()) {
+				channel.write(data);
+			}
+		}
+	}
+
+	/**
+	 * Writes out the run being built, if any.
+	 */
+	private void endRun() {
+		if (runCount > 0) {
+			putVarint((runCount << 4) | (runHeld << 1) | (runActionCount > 0 ? 1 : 0));
+			if (runActionCount > 0) {
+				putVarint(runActionCount);
+				makeRoom(runActionCount);
+				buffer.put(runActions, 0, runActionCount);
+			}
+		}
+		runCount = 0;
+		runActionCount = 0;
+	}
+
+	/**
+	 * Appends an unsigned varint.
+	 */
+	private void putVarint(long value) {
+		makeRoom(10);
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Makes sure the buffer has room for the given number of bytes.
+	 */
+	private void makeRoom(int bytes) {
+		if (buffer.remaining() < bytes) {
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package asteroids;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static asteroids.InputRecorder.*;
+
+/**
+ * Plays back a recording made by an InputRecorder, pressing and releasing
+ * keys so that a game started with the recorded seed plays out exactly as the
+ * recorded one did. The game does not need to run in real time, so a
+ * HeadlessGame can replay a recording as fast as the machine allows.
+ */
+public class InputReplay implements InputSource {
+	// The key pressed for each held control, indexed by bit number
+	private final static int[] HELD_KEYS = { KeyEvent.VK_UP, KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT };
+
+	// The key pressed for each action, indexed by action code
+	private final static int[] ACTION_KEYS = { KeyEvent.VK_SPACE, KeyEvent.VK_F, KeyEvent.VK_SHIFT, KeyEvent.VK_P };
+
+	// How the recorded game was set up
+	private final long seed;
+	private final boolean enhanced;
+
+	// The runs, positioned at the next one to be read
+	private final ByteBuffer runs;
+
+	// The held controls of the current run and the number of its ticks still
+	// to be supplied
+	private int held;
+	private long remaining;
+
+	// True once the end of the runs has been reached
+	private boolean ended;
+
+	// The length of the recorded game and the score and level it reached
+	private long ticks;
+	private long score;
+	private int level;
+
+	/**
+	 * Reads a recording from data, starting at its position. Throws an
+	 * IOException if the data is not a recording.
+	 */
+	public InputReplay(ByteBuffer data) throws IOException {
+		try {
+			byte[] magic = new byte[MAGIC.length];
+			data.get(magic);
+			if (!Arrays.equals(magic, MAGIC)) {
+				throw new IOException("Not an input recording");
+			}
+			if (data.get() != VERSION) {
+				throw new IOException("Unknown version of input recording");
+			}
+			enhanced = (data.get() & 1) != 0;
+			seed = data.getLong();
+			runs = data.slice();
+
+			// Skip ahead to the results at the end
+			ByteBuffer scan = runs.duplicate();
+			long header;
+			while ((header = getVarint(scan)) != 0) {
+				if ((header & 1) != 0) {
+					long count = getVarint(scan);
+					scan.position(scan.position() + (int) count);
+				}
+			}
+			ticks = getVarint(scan);
+			score = getVarint(scan);
+			level = (int) getVarint(scan);
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Input recording is cut short", e);
+		}
+		remaining = 0;
+		ended = false;
+	}
+
+	/**
+	 * Reads a recording from a file.
+	 */
+	public static InputReplay read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+			while (data.hasRemaining() && channel.read(data) >= 0) {
+			}
+			data.flip();
+			return new InputReplay(data);
+		}
+	}
+
+	/**
+	 * Returns the seed of the recorded game.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Reports whether the recorded game was the enhanced one.
+	 */
+	public boolean isEnhanced() {
+		return enhanced;
+	}
+
+	/**
+	 * Returns the number of ticks in the recording.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Returns the score the recorded game reached.
+	 */
+	public long getScore() {
+		return score;
+	}
+
+	/**
+	 * Returns the level the recorded game reached.
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Takes the actions due before the tick and then presses or releases the
+	 * keys needed to make the held controls match the recording. The
+	 * controller lets go of every key when it places a new ship, so the held
+	 * controls are compared with the controller's every tick.
+	 */
+	@Override
+	public boolean supply(long tick, Controller controller) {
+		if (remaining == 0 && !ended) {
+			long header = getVarint(runs);
+			if (header == 0) {
+				ended = true;
+			} else {
+				remaining = header >>> 4;
+				held = (int) (header >>> 1) & 7;
+				if ((header & 1) != 0) {
+					long count = getVarint(runs);
+					for (long i = 0; i < count; i++) {
+						int key = ACTION_KEYS[runs.get()];
+						controller.pressKey(key);
+						controller.releaseKey(key);
+					}
+				}
+			}
+		}
+		if (ended) {
+			return false;
+		}
+
+		int current = controller.getHeldControls();
+		for (int bit = 0; bit < HELD_KEYS.length; bit++) {
+			int mask = 1 << bit;
+			if ((held & mask) != 0 && (current & mask) == 0) {
+				controller.pressKey(HELD_KEYS[bit]);
+			} else if ((held & mask) == 0 && (current & mask) != 0) {
+				controller.releaseKey(HELD_KEYS[bit]);
+			}
+		}
+		remaining--;
+		return remaining > 0 || runs.get(runs.position()) != 0;
+	}
+
+	/**
+	 * Reads an unsigned varint. Throws an IllegalArgumentException if it is
+	 * too long.
+	 */
+	private static long getVarint(ByteBuffer buffer) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Varint is too long");
+	}
+
+	/**
+	 * Replays each of the recordings named by the arguments as fast as
+	 * possible, checking that every game reaches the recorded score and level.
+	 * Exits with status 1 if any does not.
+	 */
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+		if (args.length == 0) {
+			System.err.println("Usage: InputReplay recording...");
+			return;
+		}
+		boolean allMatched = true;
+		for (String name : args) {
+			InputReplay replay = read(Paths.get(name));
+			HeadlessGame game = new HeadlessGame(replay.isEnhanced(), replay, replay.getSeed());
+			long start = System.nanoTime();
+			game.run(replay.getTicks());
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			Controller controller = game.getController();
+			boolean matched = game.getTicks() == replay.getTicks() && controller.getScore() == replay.getScore()
+					&& controller.getLevel() == replay.getLevel();
+			allMatched &= matched;
+			System.out.printf("%s: %s after %d ticks, score %d, level %d (%.0f ticks/s)%n", name,
+					matched ? "matches" : "DIFFERS", game.getTicks(), controller.getScore(), controller.getLevel(),
+					game.getTicks() / seconds);
+		}
+		if (!allMatched) {
+			System.exit(1);
+		}
+	}
+}
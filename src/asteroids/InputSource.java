@@ -0,0 +1,14 @@
+package asteroids;
+
+/**
+ * Supplies key presses to a game that is run without a keyboard, such as a
+ * HeadlessGame.
+ */
+public interface InputSource {
+	/**
+	 * Presses and releases whatever keys are due before the given tick is run,
+	 * by calling pressKey and releaseKey on controller. Returns false once
+	 * there is no more input to come.
+	 */
+	public boolean supply(long tick, Controller controller);
+}
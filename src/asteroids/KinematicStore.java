@@ -0,0 +1,234 @@
+package asteroids;
+
+import java.util.Arrays;
+
+/**
+ * Holds the position, velocity and rotation of every participant in the game
+ * in parallel arrays, one slot per participant, so that advancing all the
+ * positions is a single pass over a few arrays of doubles.
+ *
+ * The slots in use are always 0 through size - 1. When a participant leaves,
+ * the participant in the last slot is moved into its place. Participants
+ * therefore refer to their slot through a handle, which stays the same for
+ * as long as the participant is in the store.
+ */
+public class KinematicStore {
+	// Kinematic state, indexed by slot
+	private double[] x, y, speedX, speedY, rotation;
+
+	// True for the slots whose position is advanced by advance. False for
+	// expired participants and for those that move themselves.
+	private boolean[] bulk;
+
+	// The participant in each slot, and its handle
+	private Participant[] participants;
+	private int[] handles;
+
+	// The slot of each handle
+	private int[] slots;
+
+	// Handles that are not in use, and how many of them there are
+	private int[] freeHandles;
+	private int freeCount;
+
+	// Number of slots in use
+	private int size;
+
+	/**
+	 * Creates an empty store.
+	 */
+	public KinematicStore() {
+		int capacity = 64;
+		x = new double[capacity];
+		y = new double[capacity];
+		speedX = new double[capacity];
+		speedY = new double[capacity];
+		rotation = new double[capacity];
+		bulk = new boolean[capacity];
+		participants = new Participant[capacity];
+		handles = new int[capacity];
+		slots = new int[capacity];
+		freeHandles = new int[capacity];
+		for (int h = 0; h < capacity; h++) {
+			freeHandles[h] = capacity - 1 - h;
+		}
+		freeCount = capacity;
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of participants in the store.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the participant in the given slot.
+	 */
+	public Participant getParticipant(int slot) {
+		return participants[slot];
+	}
+
+	/**
+	 * Reports whether the position in the given slot is advanced by advance.
+	 */
+	public boolean isBulk(int slot) {
+		return bulk[slot];
+	}
+
+	/**
+	 * Puts p into the store with the given state and returns its handle. If
+	 * bulk is true, advance will move it.
+	 */
+	int add(Participant p, double x, double y, double speedX, double speedY, double rotation, boolean bulk) {
+		if (freeCount == 0) {
+			grow();
+		}
+		int handle = freeHandles[--freeCount];
+		int slot = size++;
+		slots[handle] = slot;
+		handles[slot] = handle;
+		participants[slot] = p;
+		this.x[slot] = x;
+		this.y[slot] = y;
+		this.speedX[slot] = speedX;
+		this.speedY[slot] = speedY;
+		this.rotation[slot] = rotation;
+		this.bulk[slot] = bulk;
+		return handle;
+	}
+
+	/**
+	 * Takes the participant with the given handle out of the store, moving
+	 * the participant in the last slot into its place. The handle may be
+	 * reused afterwards.
+	 */
+	void remove(int handle) {
+		int slot = slots[handle];
+		int last = --size;
+		if (slot != last) {
+			x[slot] = x[last];
+			y[slot] = y[last];
+			speedX[slot] = speedX[last];
+			speedY[slot] = speedY[last];
+			rotation[slot] = rotation[last];
+			bulk[slot] = bulk[last];
+			participants[slot] = participants[last];
+			handles[slot] = handles[last];
+			slots[handles[slot]] = slot;
+		}
+		participants[last] = null;
+		freeHandles[freeCount++] = handle;
+	}
+
+	/**
+	 * Stops advance from moving the participant with the given handle.
+	 */
+	void stopBulk(int handle) {
+		bulk[slots[handle]] = false;
+	}
+
+	/**
+	 * Adds its velocity to the position of every participant that is moved
+	 * in bulk.
+	 */
+	public void advance() {
+		advance(0, size);
+	}
+
+	/**
+	 * Does the same as advance, but only for the slots from start up to (but
+	 * not including) end. Separate ranges may be advanced on separate threads
+	 * at the same time.
+	 */
+	public void advance(int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (bulk[i]) {
+				x[i] += speedX[i];
+				y[i] += speedY[i];
+			}
+		}
+	}
+
+	/**
+	 * Doubles the capacity of the store.
+	 */
+	private void grow() {
+		int capacity = x.length;
+		int larger = capacity * 2;
+		x = Arrays.copyOf(x, larger);
+		y = Arrays.copyOf(y, larger);
+		speedX = Arrays.copyOf(speedX, larger);
+		speedY = Arrays.copyOf(speedY, larger);
+		rotation = Arrays.copyOf(rotation, larger);
+		bulk = Arrays.copyOf(bulk, larger);
+		participants = Arrays.copyOf(participants, larger);
+		handles = Arrays.copyOf(handles, larger);
+		slots = Arrays.copyOf(slots, larger);
+		freeHandles = Arrays.copyOf(freeHandles, larger);
+		for (int h = larger - 1; h >= capacity; h--) {
+			freeHandles[freeCount++] = h;
+		}
+	}
+
+	/**
+	 * Returns the x coordinate of the participant with the given handle.
+	 */
+	double getX(int handle) {
+		return x[slots[handle]];
+	}
+
+	/**
+	 * Returns the y coordinate of the participant with the given handle.
+	 */
+	double getY(int handle) {
+		return y[slots[handle]];
+	}
+
+	/**
+	 * Returns the horizontal speed of the participant with the given handle.
+	 */
+	double getSpeedX(int handle) {
+		return speedX[slots[handle]];
+	}
+
+	/**
+	 * Returns the vertical speed of the participant with the given handle.
+	 */
+	double getSpeedY(int handle) {
+		return speedY[slots[handle]];
+	}
+
+	/**
+	 * Returns the rotation of the participant with the given handle.
+	 */
+	double getRotation(int handle) {
+		return rotation[slots[handle]];
+	}
+
+	/**
+	 * Sets the position of the participant with the given handle.
+	 */
+	void setPosition(int handle, double x, double y) {
+		int slot = slots[handle];
+		this.x[slot] = x;
+		this.y[slot] = y;
+	}
+
+	/**
+	 * Sets the velocity of the participant with the given handle.
+	 */
+	void setSpeed(int handle, double speedX, double speedY) {
+		int slot = slots[handle];
+		this.speedX[slot] = speedX;
+		this.speedY[slot] = speedY;
+	}
+
+	/**
+	 * Sets the rotation of the participant with the given handle.
+	 */
+	void setRotation(int handle, double rotation) {
+		this.rotation[slots[handle]] = rotation;
+	}
+}
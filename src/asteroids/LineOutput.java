@@ -0,0 +1,42 @@
+package asteroids;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Sends mixed samples to the sound card through a SourceDataLine.
+ */
+public class LineOutput implements AudioOutput {
+	// The line being written to
+	private SourceDataLine line;
+
+	/**
+	 * Opens and starts a line for samples in the given format, with room for
+	 * bufferBytes bytes of samples. The smaller the buffer, the sooner a sound
+	 * is heard after it is played. Throws LineUnavailableException if no line
+	 * can be opened.
+	 */
+	public LineOutput(AudioFormat format, int bufferBytes) throws LineUnavailableException {
+		try {
+			line = AudioSystem.getSourceDataLine(format);
+		} catch (IllegalArgumentException e) {
+			// Thrown when there is no audio device at all
+			throw new LineUnavailableException(e.getMessage());
+		}
+		line.open(format, bufferBytes);
+		line.start();
+	}
+
+	@Override
+	public void write(byte[] data, int length) {
+		line.write(data, 0, length);
+	}
+
+	@Override
+	public void close() {
+		line.stop();
+		line.close();
+	}
+}
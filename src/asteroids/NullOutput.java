@@ -0,0 +1,49 @@
+package asteroids;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Throws mixed samples away. Unless it is told not to, it takes as long over
+ * each write as the samples would take to play, so a mixer writing to it
+ * runs just as it would with a sound card. It counts what it is given, so it
+ * can stand in for a sound card when the mixer is tested.
+ */
+public class NullOutput implements AudioOutput {
+	// Nanoseconds taken to play one byte, or 0 if writes return at once
+	private final double nanosPerByte;
+
+	// Number of bytes written so far
+	private volatile long bytesWritten;
+
+	/**
+	 * Creates an output for samples in the given format. If paced is true,
+	 * each write sleeps for as long as its samples would take to play.
+	 */
+	public NullOutput(AudioFormat format, boolean paced) {
+		nanosPerByte = paced ? 1e9 / (format.getFrameRate() * format.getFrameSize()) : 0;
+	}
+
+	/**
+	 * Returns the number of bytes written so far.
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	@Override
+	public void write(byte[] data, int length) {
+		bytesWritten += length;
+		long nanos = (long) (length * nanosPerByte);
+		if (nanos > 0) {
+			try {
+				Thread.sleep(nanos / 1000000L, (int) (nanos % 1000000L));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,697 @@
+package asteroids;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The outline of a participant flattened into arrays of vertices, along with
+ * the intersection test that is used to decide whether two participants
+ * overlap.
+ *
+ * An outline is made of one or more sub-paths. As with java.awt.geom.Area,
+ * every sub-path is treated as closed (open polylines such as the alien's dome
+ * are closed back to their first point) and only sub-paths that enclose some
+ * area can take part in a collision. A sub-path that collapses to a line, such
+ * as a piece of Debris, never overlaps anything.
+ *
+ * A participant keeps one outline in its own coordinate space, loaded from
+ * its Shape, and one in screen coordinates that is rewritten in place each
+ * time it moves. The arrays are reused from one update to the next, and the
+ * intersection test allocates nothing. Outlines that are shared by many
+ * participants can be flattened once with share, after which every
+ * participant using that Shape refers to the same local outline.
+ *
+ * A local outline also knows the radius of the smallest circle about its
+ * origin that holds every sub-path that can take part in a collision, so two
+ * participants that are further apart than the sum of their radii can be
+ * passed over without looking at their vertices. A long, thin outline such as
+ * the boss's hull is poorly served by one circle about its origin, so it is
+ * also covered by a row of smaller circles, which are tested next.
+ */
+public class OutlineGeometry {
+	// Flattened outlines of shared shapes
+	private final static Map<Shape, OutlineGeometry> shared = new IdentityHashMap<Shape, OutlineGeometry>();
+
+	// Tolerance used when flattening curved outlines
+	private final static double FLATNESS = 0.5;
+
+	// Sub-paths enclosing less area than this are considered to be lines
+	private final static double MIN_AREA = 1e-9;
+
+	// Most circles used to cover a long outline
+	private final static int MAX_CIRCLES = 16;
+
+	// Vertex coordinates, stored as x0, y0, x1, y1, ...
+	private double[] coords;
+
+	// Index of the first vertex of each sub-path. starts[subpaths] is the
+	// number of vertices.
+	private int[] starts;
+
+	// Whether each sub-path encloses any area
+	private boolean[] solid;
+
+	// Whether each sub-path was explicitly closed. This matters only when the
+	// outline is drawn.
+	private boolean[] closed;
+
+	// Number of sub-paths
+	private int subpaths;
+
+	// Bounding box of all vertices
+	private double minX, minY, maxX, maxY;
+
+	// Radius about the origin of the solid sub-paths, or negative infinity if
+	// there are none. Only set by load.
+	private double radius;
+
+	// Circles covering the solid sub-paths, stored as x, y and radius, and the
+	// number of them. A single circle is the one given by radius. Only set by
+	// load.
+	private double[] circles;
+	private int circleCount;
+
+	// Scratch space for reading path segments
+	private final double[] segment = new double[6];
+
+	/**
+	 * Creates an empty outline.
+	 */
+	public OutlineGeometry() {
+		coords = new double[16];
+		starts = new int[4];
+		solid = new boolean[3];
+		closed = new boolean[3];
+		subpaths = 0;
+		circles = new double[3];
+		radius = Double.NEGATIVE_INFINITY;
+		circleCount = 0;
+	}
+
+	/**
+	 * Flattens a shape that will be shared by many participants, so that they
+	 * can all use the same local outline. The shape must never change.
+	 * Returns the shape.
+	 */
+	public static synchronized Shape share(Shape shape) {
+		OutlineGeometry outline = new OutlineGeometry();
+		outline.load(shape);
+		shared.put(shape, outline);
+		return shape;
+	}
+
+	/**
+	 * Returns the flattened outline of a shape passed to share, or null if the
+	 * shape is not shared. The result must not be modified.
+	 */
+	public static synchronized OutlineGeometry getShared(Shape shape) {
+		return shared.get(shape);
+	}
+
+	/**
+	 * Replaces the contents of this outline with the flattened vertices of
+	 * shape.
+	 */
+	public void load(Shape shape) {
+		subpaths = 0;
+		starts[0] = 0;
+		int vertices = 0;
+		boolean open = false;
+		double moveX = 0, moveY = 0;
+		PathIterator iter = shape.getPathIterator(null, FLATNESS);
+		while (!iter.isDone()) {
+			int type = iter.currentSegment(segment);
+			if (type == PathIterator.SEG_MOVETO) {
+				if (open) {
+					vertices = endSubpath(vertices, false);
+				}
+				moveX = segment[0];
+				moveY = segment[1];
+				vertices = addVertex(vertices, moveX, moveY);
+				open = true;
+			} else if (type == PathIterator.SEG_LINETO) {
+				if (!open) {
+					// A line after a close starts again from the last move
+					vertices = addVertex(vertices, moveX, moveY);
+					open = true;
+				}
+				vertices = addVertex(vertices, segment[0], segment[1]);
+			} else if (type == PathIterator.SEG_CLOSE && open) {
+				vertices = endSubpath(vertices, true);
+				open = false;
+			}
+			iter.next();
+		}
+		if (open) {
+			endSubpath(vertices, false);
+		}
+		computeBounds();
+		computeCircles();
+	}
+
+	/**
+	 * Replaces the contents of this outline with the vertices of local,
+	 * rotated by the angle whose cosine and sine are given and then translated
+	 * by (tx, ty).
+	 */
+	public void transform(OutlineGeometry local, double tx, double ty, double cos, double sin) {
+		int vertices = local.starts[local.subpaths];
+		if (coords.length < 2 * vertices) {
+			coords = new double[local.coords.length];
+		}
+		if (starts.length < local.subpaths + 1) {
+			starts = new int[local.starts.length];
+			solid = new boolean[local.solid.length];
+			closed = new boolean[local.closed.length];
+		}
+		subpaths = local.subpaths;
+		System.arraycopy(local.starts, 0, starts, 0, subpaths + 1);
+		System.arraycopy(local.solid, 0, solid, 0, subpaths);
+		System.arraycopy(local.closed, 0, closed, 0, subpaths);
+		double[] from = local.coords;
+		for (int i = 0; i < 2 * vertices; i += 2) {
+			double x = from[i];
+			double y = from[i + 1];
+			coords[i] = cos * x - sin * y + tx;
+			coords[i + 1] = sin * x + cos * y + ty;
+		}
+		computeBounds();
+	}
+
+	/**
+	 * Appends the sub-paths of this outline to path, offset by (dx, dy).
+	 */
+	public void appendTo(Path2D path, double dx, double dy) {
+		for (int s = 0; s < subpaths; s++) {
+			int start = starts[s];
+			int end = starts[s + 1];
+			path.moveTo(coords[2 * start] + dx, coords[2 * start + 1] + dy);
+			for (int i = start + 1; i < end; i++) {
+				path.lineTo(coords[2 * i] + dx, coords[2 * i + 1] + dy);
+			}
+			if (closed[s]) {
+				path.closePath();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of sub-paths in this outline.
+	 */
+	public int getSubpathCount() {
+		return subpaths;
+	}
+
+	/**
+	 * Returns the smallest x coordinate of any vertex.
+	 */
+	public double getMinX() {
+		return minX;
+	}
+
+	/**
+	 * Returns the smallest y coordinate of any vertex.
+	 */
+	public double getMinY() {
+		return minY;
+	}
+
+	/**
+	 * Returns the largest x coordinate of any vertex.
+	 */
+	public double getMaxX() {
+		return maxX;
+	}
+
+	/**
+	 * Returns the largest y coordinate of any vertex.
+	 */
+	public double getMaxY() {
+		return maxY;
+	}
+
+	/**
+	 * Returns the radius about the origin of the sub-paths of this local
+	 * outline that can take part in a collision, or negative infinity if none
+	 * can.
+	 */
+	public double getRadius() {
+		return radius;
+	}
+
+	/**
+	 * Returns the number of circles covering this local outline: 0 if it can
+	 * take no part in a collision, 1 if the circle given by getRadius serves,
+	 * and more for a long outline.
+	 */
+	public int getCircleCount() {
+		return circleCount;
+	}
+
+	/**
+	 * Reports whether any circle covering local outline a meets any circle
+	 * covering local outline b, when each is rotated by the angle whose cosine
+	 * and sine are given and b's origin is placed at (dx, dy) from a's. If
+	 * not, the two outlines cannot overlap.
+	 */
+	public static boolean circlesMeet(OutlineGeometry a, double aCos, double aSin, OutlineGeometry b, double bCos,
+			double bSin, double dx, double dy) {
+		for (int i = 0; i < a.circleCount; i++) {
+			double ax = a.circles[3 * i], ay = a.circles[3 * i + 1], ar = a.circles[3 * i + 2];
+			double x = aCos * ax - aSin * ay;
+			double y = aSin * ax + aCos * ay;
+			for (int j = 0; j < b.circleCount; j++) {
+				double bx = b.circles[3 * j], by = b.circles[3 * j + 1], reach = ar + b.circles[3 * j + 2];
+				double ex = bCos * bx - bSin * by + dx - x;
+				double ey = bSin * bx + bCos * by + dy - y;
+				if (ex * ex + ey * ey <= reach * reach) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reports whether the bounding boxes of a and b overlap, which they must
+	 * for the outlines to overlap.
+	 */
+	public static boolean boxesOverlap(OutlineGeometry a, OutlineGeometry b) {
+		return a.maxX > b.minX && b.maxX > a.minX && a.maxY > b.minY && b.maxY > a.minY;
+	}
+
+	/**
+	 * Reports whether a vertex of a solid sub-path of a, traced back along a
+	 * move of (moveX, moveY) that brought a to where it is, passed into the
+	 * area enclosed by b. This catches a small, fast outline that went right
+	 * through b in one move, as long as b is where it is now throughout; a
+	 * move relative to b serves when both moved.
+	 */
+	public static boolean sweptInto(OutlineGeometry a, double moveX, double moveY, OutlineGeometry b) {
+		if ((moveX == 0 && moveY == 0) || a.maxX - Math.min(moveX, 0) <= b.minX
+				|| a.minX - Math.max(moveX, 0) >= b.maxX || a.maxY - Math.min(moveY, 0) <= b.minY
+				|| a.minY - Math.max(moveY, 0) >= b.maxY) {
+			return false;
+		}
+		for (int sa = 0; sa < a.subpaths; sa++) {
+			if (!a.solid[sa]) {
+				continue;
+			}
+			for (int i = a.starts[sa]; i < a.starts[sa + 1]; i++) {
+				double x = a.coords[2 * i];
+				double y = a.coords[2 * i + 1];
+				if (b.contains(x - moveX, y - moveY) || segmentCrosses(x - moveX, y - moveY, x, y, b)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reports whether the areas enclosed by a and b overlap. This agrees with
+	 * intersecting the two outlines as java.awt.geom.Area objects, except for
+	 * outlines that touch only along their boundaries.
+	 */
+	public static boolean intersects(OutlineGeometry a, OutlineGeometry b) {
+		// Bounding box reject
+		if (a.subpaths == 0 || b.subpaths == 0 || !boxesOverlap(a, b)) {
+			return false;
+		}
+
+		// If any edges cross, the areas overlap
+		if (edgesCross(a, b)) {
+			return true;
+		}
+
+		// Otherwise one outline may lie entirely within the other. Outlines
+		// that lie exactly on top of each other share every vertex and edge,
+		// so for them a point strictly inside is needed.
+		return anyPointInside(a, b) || anyPointInside(b, a) || interiorPointInside(a, b)
+				|| interiorPointInside(b, a);
+	}
+
+	/**
+	 * Appends a vertex to the current sub-path, skipping it if it repeats the
+	 * previous vertex. Returns the new number of vertices.
+	 */
+	private int addVertex(int vertices, double x, double y) {
+		int start = starts[subpaths];
+		if (vertices > start && coords[2 * vertices - 2] == x && coords[2 * vertices - 1] == y) {
+			return vertices;
+		}
+		if (coords.length < 2 * vertices + 2) {
+			coords = Arrays.copyOf(coords, coords.length * 2);
+		}
+		coords[2 * vertices] = x;
+		coords[2 * vertices + 1] = y;
+		return vertices + 1;
+	}
+
+	/**
+	 * Finishes the current sub-path, dropping a final vertex of a closed
+	 * sub-path that repeats the first, and decides whether the sub-path
+	 * encloses any area. Returns the new number of vertices.
+	 */
+	private int endSubpath(int vertices, boolean close) {
+		int start = starts[subpaths];
+		if (close && vertices - start > 1 && coords[2 * vertices - 2] == coords[2 * start]
+				&& coords[2 * vertices - 1] == coords[2 * start + 1]) {
+			vertices--;
+		}
+		if (starts.length < subpaths + 2) {
+			starts = Arrays.copyOf(starts, starts.length * 2);
+			solid = Arrays.copyOf(solid, starts.length);
+			closed = Arrays.copyOf(closed, starts.length);
+		}
+		closed[subpaths] = close;
+		solid[subpaths] = vertices - start >= 3 && Math.abs(signedArea(start, vertices)) > MIN_AREA;
+		subpaths++;
+		starts[subpaths] = vertices;
+		return vertices;
+	}
+
+	/**
+	 * Returns twice the signed area of the polygon made of vertices start
+	 * through end - 1.
+	 */
+	private double signedArea(int start, int end) {
+		double sum = 0;
+		double px = coords[2 * end - 2];
+		double py = coords[2 * end - 1];
+		for (int i = start; i < end; i++) {
+			double x = coords[2 * i];
+			double y = coords[2 * i + 1];
+			sum += px * y - x * py;
+			px = x;
+			py = y;
+		}
+		return sum;
+	}
+
+	/**
+	 * Computes the bounding box of the vertices.
+	 */
+	private void computeBounds() {
+		int vertices = starts[subpaths];
+		if (vertices == 0) {
+			minX = minY = maxX = maxY = 0;
+			return;
+		}
+		minX = maxX = coords[0];
+		minY = maxY = coords[1];
+		for (int i = 1; i < vertices; i++) {
+			double x = coords[2 * i];
+			double y = coords[2 * i + 1];
+			if (x < minX) {
+				minX = x;
+			} else if (x > maxX) {
+				maxX = x;
+			}
+			if (y < minY) {
+				minY = y;
+			} else if (y > maxY) {
+				maxY = y;
+			}
+		}
+	}
+
+	/**
+	 * Computes the radius of the solid sub-paths about the origin and the
+	 * circles that cover them. An outline more than twice as long as it is
+	 * wide is covered by a row of circles, one for each roughly square piece
+	 * of its bounding box.
+	 */
+	private void computeCircles() {
+		double r2 = -1;
+		double x0 = 0, y0 = 0, x1 = 0, y1 = 0;
+		for (int s = 0; s < subpaths; s++) {
+			if (!solid[s]) {
+				continue;
+			}
+			for (int i = starts[s]; i < starts[s + 1]; i++) {
+				double x = coords[2 * i];
+				double y = coords[2 * i + 1];
+				if (r2 < 0) {
+					x0 = x1 = x;
+					y0 = y1 = y;
+				}
+				x0 = Math.min(x0, x);
+				x1 = Math.max(x1, x);
+				y0 = Math.min(y0, y);
+				y1 = Math.max(y1, y);
+				r2 = Math.max(r2, x * x + y * y);
+			}
+		}
+		if (r2 < 0) {
+			radius = Double.NEGATIVE_INFINITY;
+			circleCount = 0;
+			return;
+		}
+		radius = pad(Math.sqrt(r2));
+
+		double width = x1 - x0;
+		double height = y1 - y0;
+		double longSide = Math.max(width, height);
+		double shortSide = Math.min(width, height);
+		int n = 1;
+		if (2 * shortSide < longSide) {
+			n = (int) Math.min(MAX_CIRCLES, Math.ceil(longSide / Math.max(shortSide, longSide / MAX_CIRCLES)));
+		}
+		if (circles.length < 3 * n) {
+			circles = new double[3 * n];
+		}
+		circleCount = n;
+		if (n == 1) {
+			circles[0] = 0;
+			circles[1] = 0;
+			circles[2] = radius;
+			return;
+		}
+		double cellWidth = (width >= height) ? width / n : width;
+		double cellHeight = (width >= height) ? height : height / n;
+		double cellRadius = pad(Math.sqrt(cellWidth * cellWidth + cellHeight * cellHeight) / 2);
+		for (int k = 0; k < n; k++) {
+			circles[3 * k] = (width >= height) ? x0 + (k + 0.5) * cellWidth : (x0 + x1) / 2;
+			circles[3 * k + 1] = (width >= height) ? (y0 + y1) / 2 : y0 + (k + 0.5) * cellHeight;
+			circles[3 * k + 2] = cellRadius;
+		}
+	}
+
+	/**
+	 * Enlarges a radius slightly, so that rounding in rotating and placing an
+	 * outline can never carry a vertex outside its circle.
+	 */
+	private static double pad(double r) {
+		return r * (1 + 1e-12) + 1e-9;
+	}
+
+	/**
+	 * Reports whether an edge of a solid sub-path of a properly crosses an
+	 * edge of a solid sub-path of b.
+	 */
+	private static boolean edgesCross(OutlineGeometry a, OutlineGeometry b) {
+		for (int sa = 0; sa < a.subpaths; sa++) {
+			if (!a.solid[sa]) {
+				continue;
+			}
+			int aStart = a.starts[sa];
+			int aEnd = a.starts[sa + 1];
+			for (int i = aStart; i < aEnd; i++) {
+				int i2 = (i + 1 < aEnd) ? i + 1 : aStart;
+				double ax1 = a.coords[2 * i], ay1 = a.coords[2 * i + 1];
+				double ax2 = a.coords[2 * i2], ay2 = a.coords[2 * i2 + 1];
+				// Skip edges that lie entirely outside the other bounding box
+				if (Math.max(ax1, ax2) <= b.minX || Math.min(ax1, ax2) >= b.maxX || Math.max(ay1, ay2) <= b.minY
+						|| Math.min(ay1, ay2) >= b.maxY) {
+					continue;
+				}
+				for (int sb = 0; sb < b.subpaths; sb++) {
+					if (!b.solid[sb]) {
+						continue;
+					}
+					int bStart = b.starts[sb];
+					int bEnd = b.starts[sb + 1];
+					for (int j = bStart; j < bEnd; j++) {
+						int j2 = (j + 1 < bEnd) ? j + 1 : bStart;
+						if (segmentsCross(ax1, ay1, ax2, ay2, b.coords[2 * j], b.coords[2 * j + 1], b.coords[2 * j2],
+								b.coords[2 * j2 + 1])) {
+							return true;
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reports whether the segment (x1,y1)-(x2,y2) properly crosses an edge of
+	 * a solid sub-path of b.
+	 */
+	private static boolean segmentCrosses(double x1, double y1, double x2, double y2, OutlineGeometry b) {
+		if (Math.max(x1, x2) <= b.minX || Math.min(x1, x2) >= b.maxX || Math.max(y1, y2) <= b.minY
+				|| Math.min(y1, y2) >= b.maxY) {
+			return false;
+		}
+		for (int sb = 0; sb < b.subpaths; sb++) {
+			if (!b.solid[sb]) {
+				continue;
+			}
+			int bStart = b.starts[sb];
+			int bEnd = b.starts[sb + 1];
+			for (int j = bStart; j < bEnd; j++) {
+				int j2 = (j + 1 < bEnd) ? j + 1 : bStart;
+				if (segmentsCross(x1, y1, x2, y2, b.coords[2 * j], b.coords[2 * j + 1], b.coords[2 * j2],
+						b.coords[2 * j2 + 1])) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reports whether segments (x1,y1)-(x2,y2) and (x3,y3)-(x4,y4) cross at a
+	 * single point interior to both.
+	 */
+	private static boolean segmentsCross(double x1, double y1, double x2, double y2, double x3, double y3, double x4,
+			double y4) {
+		double d1 = cross(x3, y3, x4, y4, x1, y1);
+		double d2 = cross(x3, y3, x4, y4, x2, y2);
+		if ((d1 > 0 && d2 > 0) || (d1 < 0 && d2 < 0) || d1 == 0 || d2 == 0) {
+			return false;
+		}
+		double d3 = cross(x1, y1, x2, y2, x3, y3);
+		double d4 = cross(x1, y1, x2, y2, x4, y4);
+		return (d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0);
+	}
+
+	/**
+	 * Returns the cross product of (x2-x1, y2-y1) and (x3-x1, y3-y1).
+	 */
+	private static double cross(double x1, double y1, double x2, double y2, double x3, double y3) {
+		return (x2 - x1) * (y3 - y1) - (y2 - y1) * (x3 - x1);
+	}
+
+	/**
+	 * Reports whether a vertex, or the midpoint of an edge, of a solid
+	 * sub-path of a lies strictly inside b. Midpoints catch outlines whose
+	 * edges lie along each other.
+	 */
+	private static boolean anyPointInside(OutlineGeometry a, OutlineGeometry b) {
+		for (int sa = 0; sa < a.subpaths; sa++) {
+			if (!a.solid[sa]) {
+				continue;
+			}
+			int start = a.starts[sa];
+			int end = a.starts[sa + 1];
+			for (int i = start; i < end; i++) {
+				int i2 = (i + 1 < end) ? i + 1 : start;
+				double x = a.coords[2 * i];
+				double y = a.coords[2 * i + 1];
+				if (b.contains(x, y) || b.contains((x + a.coords[2 * i2]) / 2, (y + a.coords[2 * i2 + 1]) / 2)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reports whether a point strictly inside a solid sub-path of a lies
+	 * strictly inside b. The point is found on a horizontal line that passes
+	 * through no vertex of the sub-path, halfway between the two leftmost
+	 * places where the line crosses its edges. Left of the first crossing the
+	 * winding number is zero, so between the first two it cannot be.
+	 */
+	private static boolean interiorPointInside(OutlineGeometry a, OutlineGeometry b) {
+		for (int sa = 0; sa < a.subpaths; sa++) {
+			if (!a.solid[sa]) {
+				continue;
+			}
+			int start = a.starts[sa];
+			int end = a.starts[sa + 1];
+
+			// Take the line halfway between the lowest y of any vertex and the
+			// next lowest
+			double low = Double.POSITIVE_INFINITY;
+			for (int i = start; i < end; i++) {
+				low = Math.min(low, a.coords[2 * i + 1]);
+			}
+			double next = Double.POSITIVE_INFINITY;
+			for (int i = start; i < end; i++) {
+				double y = a.coords[2 * i + 1];
+				if (y > low) {
+					next = Math.min(next, y);
+				}
+			}
+			if (next == Double.POSITIVE_INFINITY) {
+				continue;
+			}
+			double y = (low + next) / 2;
+
+			// Find the two leftmost crossings
+			double first = Double.POSITIVE_INFINITY;
+			double second = Double.POSITIVE_INFINITY;
+			for (int i = start; i < end; i++) {
+				int i2 = (i + 1 < end) ? i + 1 : start;
+				double x1 = a.coords[2 * i], y1 = a.coords[2 * i + 1];
+				double x2 = a.coords[2 * i2], y2 = a.coords[2 * i2 + 1];
+				if ((y1 < y) != (y2 < y)) {
+					double x = x1 + (y - y1) * (x2 - x1) / (y2 - y1);
+					if (x < first) {
+						second = first;
+						first = x;
+					} else if (x < second) {
+						second = x;
+					}
+				}
+			}
+			if (second != Double.POSITIVE_INFINITY && b.contains((first + second) / 2, y)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reports whether (x,y) lies strictly inside the area enclosed by this
+	 * outline, using the non-zero winding rule. Points on an edge are outside.
+	 */
+	private boolean contains(double x, double y) {
+		if (x <= minX || x >= maxX || y <= minY || y >= maxY) {
+			return false;
+		}
+		int winding = 0;
+		for (int s = 0; s < subpaths; s++) {
+			if (!solid[s]) {
+				continue;
+			}
+			int start = starts[s];
+			int end = starts[s + 1];
+			for (int i = start; i < end; i++) {
+				int i2 = (i + 1 < end) ? i + 1 : start;
+				double x1 = coords[2 * i], y1 = coords[2 * i + 1];
+				double x2 = coords[2 * i2], y2 = coords[2 * i2 + 1];
+				double side = cross(x1, y1, x2, y2, x, y);
+				if (side == 0 && Math.min(y1, y2) <= y && y <= Math.max(y1, y2) && Math.min(x1, x2) <= x
+						&& x <= Math.max(x1, x2)) {
+					return false;
+				}
+				if (y1 <= y) {
+					if (y2 > y && side > 0) {
+						winding++;
+					}
+				} else if (y2 <= y && side < 0) {
+					winding--;
+				}
+			}
+		}
+		return winding != 0;
+	}
+}
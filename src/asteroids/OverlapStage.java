@@ -0,0 +1,31 @@
+package asteroids;
+
+/**
+ * The stages of the test for whether two participants overlap, cheapest
+ * first. Each stage either settles that the two do not overlap or passes them
+ * on to the next, so the stage at which a pair leaves the test tells how much
+ * work it took. A pair that includes a fast participant and is found not to
+ * overlap is then tested along its last move, and collides if one passed
+ * through the other on the way.
+ */
+public enum OverlapStage {
+	/** Too far apart for the circles about their origins to meet */
+	CIRCLE,
+	/** No circle of the row covering a long outline meets the other outline's */
+	CIRCLE_COVER,
+	/** Their bounding boxes do not overlap */
+	BOUNDING_BOX,
+	/** Their outlines were compared edge by edge and found not to overlap */
+	OUTLINE,
+	/** They do not overlap, but one passed into the other during its last move */
+	SWEPT,
+	/** They overlap */
+	OVERLAP;
+
+	/**
+	 * Reports whether a pair that left the test at this stage collided.
+	 */
+	public boolean isCollision() {
+		return this == SWEPT || this == OVERLAP;
+	}
+}
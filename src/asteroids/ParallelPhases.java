@@ -0,0 +1,309 @@
+package asteroids;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Shares the parts of a step of the game that do not depend on one another
+ * among the threads of a ForkJoinPool: advancing the positions and placing the
+ * borders of the participants that are moved in bulk, and testing candidate
+ * pairs for overlap.
+ *
+ * Nothing that can affect another participant is done in parallel. Steering,
+ * participants that move themselves, and the collidedWith callbacks all stay
+ * on the calling thread. The overlapping pairs are collected in the order in
+ * which the collision check visits pairs on a single thread, so that the
+ * callbacks can be made in exactly that order and the game comes out the same
+ * whatever the number of threads.
+ */
+public class ParallelPhases {
+	// Number of pieces each phase is divided into for every thread, so that a
+	// thread that finishes early can take over some of the remaining work
+	private final static int PIECES_PER_THREAD = 4;
+
+	// The threads that do the work
+	private final ForkJoinPool pool;
+
+	// The pieces of each phase, and the tasks that run all the pieces of a
+	// phase. All of them are reused from step to step.
+	private final MovePiece[] movePieces;
+	private final OverlapPiece[] overlapPieces;
+	private final Phase movePhase;
+	private final Phase overlapPhase;
+
+	// Indices of the pairs found to overlap by the last call to findOverlaps,
+	// two to a pair, and the number of pairs
+	private int[] overlaps;
+	private int overlapCount;
+
+	// Number of candidate pairs culled and tested by the last call to
+	// findOverlaps
+	private int pairsCulled;
+	private int pairsTested;
+
+	// Number of pairs tested by the last call to findOverlaps that left the
+	// test at each OverlapStage
+	private final int[] overlapResults = new int[OverlapStage.values().length];
+
+	/**
+	 * Creates the means to run the phases on the given number of threads.
+	 */
+	public ParallelPhases(int parallelism) {
+		pool = new ForkJoinPool(parallelism);
+		int pieces = parallelism * PIECES_PER_THREAD;
+		movePieces = new MovePiece[pieces];
+		overlapPieces = new OverlapPiece[pieces];
+		for (int k = 0; k < pieces; k++) {
+			movePieces[k] = new MovePiece();
+			overlapPieces[k] = new OverlapPiece();
+		}
+		movePhase = new Phase(movePieces);
+		overlapPhase = new Phase(overlapPieces);
+		overlaps = new int[64];
+	}
+
+	/**
+	 * Returns the number of threads the work is shared among.
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Stops the threads once they have finished the work in hand.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Advances the position of every participant in store that is moved in
+	 * bulk and then places its border, as KinematicStore.advance followed by a
+	 * call to finishMove on each of them would.
+	 */
+	public void advance(KinematicStore store) {
+		int count = store.size();
+		int pieces = movePieces.length;
+		for (int k = 0; k < pieces; k++) {
+			movePieces[k].prepare(store, (int) ((long) count * k / pieces), (int) ((long) count * (k + 1) / pieces));
+		}
+		movePhase.reinitialize();
+		pool.invoke(movePhase);
+	}
+
+	/**
+	 * Finds the pairs of participants in ordered[0] through ordered[count - 1]
+	 * that overlap, using a grid that has been filled with them. Only pairs
+	 * that the collision check in ParticipantState would test are tested. The
+	 * indices of the pairs are left in the array returned by getOverlaps in the
+	 * order in which that check visits them, and the number of pairs is
+	 * returned.
+	 */
+	public int findOverlaps(Participant[] ordered, int count, CollisionGrid grid) {
+		// A participant is only paired with those that come after it, so the
+		// early rows hold more work. The rows are divided so that each piece
+		// gets about the same number of pairs.
+		int pieces = overlapPieces.length;
+		int start = 0;
+		for (int k = 0; k < pieces; k++) {
+			int end = (k == pieces - 1) ? count
+					: (int) Math.round(count * (1 - Math.sqrt(1 - (k + 1) / (double) pieces)));
+			overlapPieces[k].prepare(ordered, grid, start, end);
+			start = end;
+		}
+		overlapPhase.reinitialize();
+		pool.invoke(overlapPhase);
+
+		// Gather the pairs in row order
+		overlapCount = 0;
+		pairsCulled = 0;
+		pairsTested = 0;
+		Arrays.fill(overlapResults, 0);
+		for (OverlapPiece piece : overlapPieces) {
+			if (overlaps.length < 2 * (overlapCount + piece.overlapCount)) {
+				overlaps = Arrays.copyOf(overlaps, Math.max(2 * (overlapCount + piece.overlapCount), overlaps.length * 2));
+			}
+			System.arraycopy(piece.overlaps, 0, overlaps, 2 * overlapCount, 2 * piece.overlapCount);
+			overlapCount += piece.overlapCount;
+			pairsCulled += piece.pairsCulled;
+			pairsTested += piece.pairsTested;
+			for (int s = 0; s < overlapResults.length; s++) {
+				overlapResults[s] += piece.overlapResults[s];
+			}
+			piece.finish();
+		}
+		return overlapCount;
+	}
+
+	/**
+	 * Returns the array filled in by the last call to findOverlaps. The
+	 * indices of pair k are at 2k and 2k + 1.
+	 */
+	public int[] getOverlaps() {
+		return overlaps;
+	}
+
+	/**
+	 * Returns the number of candidate pairs that the last call to findOverlaps
+	 * skipped because a collision between them could have no effect.
+	 */
+	public int getPairsCulled() {
+		return pairsCulled;
+	}
+
+	/**
+	 * Returns the number of pairs that the last call to findOverlaps tested
+	 * for overlap.
+	 */
+	public int getPairsTested() {
+		return pairsTested;
+	}
+
+	/**
+	 * Returns the number of pairs that the last call to findOverlaps tested
+	 * whose test was settled at the given stage.
+	 */
+	public int getOverlapResults(OverlapStage stage) {
+		return overlapResults[stage.ordinal()];
+	}
+
+	/**
+	 * Runs all the pieces of a phase and waits for them to finish.
+	 */
+	@SuppressWarnings("serial")
+	private static class Phase extends RecursiveAction {
+		// The pieces of the phase
+		private final ForkJoinTask<?>[] pieces;
+
+		Phase(ForkJoinTask<?>[] pieces) {
+			this.pieces = pieces;
+		}
+
+		@Override
+		protected void compute() {
+			for (ForkJoinTask<?> piece : pieces) {
+				piece.reinitialize();
+			}
+			invokeAll(pieces);
+		}
+	}
+
+	/**
+	 * Advances and places the borders of a range of slots of a store.
+	 */
+	@SuppressWarnings("serial")
+	private static class MovePiece extends RecursiveAction {
+		// The store, and the range of slots
+		private KinematicStore store;
+		private int start, end;
+
+		/**
+		 * Gives this piece the slots from start up to end.
+		 */
+		void prepare(KinematicStore store, int start, int end) {
+			this.store = store;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			store.advance(start, end);
+			for (int i = start; i < end; i++) {
+				if (store.isBulk(i)) {
+					store.getParticipant(i).finishMove();
+				}
+			}
+			store = null;
+		}
+	}
+
+	/**
+	 * Finds the overlapping pairs whose first participant is in a range of
+	 * rows.
+	 */
+	@SuppressWarnings("serial")
+	private static class OverlapPiece extends RecursiveAction {
+		// The participants, the grid they are in, and the range of rows
+		private Participant[] ordered;
+		private CollisionGrid grid;
+		private int start, end;
+
+		// Working space for searching the grid
+		private final CollisionGrid.Search search = new CollisionGrid.Search();
+
+		// The overlapping pairs found, two indices to a pair, and the number
+		// of pairs
+		private int[] overlaps = new int[16];
+		private int overlapCount;
+
+		// Number of candidate pairs culled and tested
+		private int pairsCulled;
+		private int pairsTested;
+
+		// Number of pairs tested that left the test at each OverlapStage
+		private final int[] overlapResults = new int[OverlapStage.values().length];
+
+		/**
+		 * Gives this piece the rows from start up to end.
+		 */
+		void prepare(Participant[] ordered, CollisionGrid grid, int start, int end) {
+			this.ordered = ordered;
+			this.grid = grid;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Lets go of the participants once the results have been gathered.
+		 */
+		void finish() {
+			ordered = null;
+			grid = null;
+		}
+
+		@Override
+		protected void compute() {
+			overlapCount = 0;
+			pairsCulled = 0;
+			pairsTested = 0;
+			Arrays.fill(overlapResults, 0);
+			for (int i = start; i < end; i++) {
+				Participant p1 = ordered[i];
+				if (!p1.isExpired() && p1.getBorder() != null) {
+					int found = grid.findCandidates(i, p1.getBorder(), p1.getMoveX(), p1.getMoveY(), search);
+					int[] candidates = search.getCandidates();
+					for (int k = found - 1; k >= 0; k--) {
+						Participant p2 = ordered[candidates[k]];
+						if (!p2.isExpired()) {
+							if (!CollisionFilter.canInteract(p1, p2)) {
+								pairsCulled++;
+							} else {
+								pairsTested++;
+								OverlapStage stage = p1.testOverlap(p2);
+								overlapResults[stage.ordinal()]++;
+								if (stage.isCollision()) {
+									add(i, candidates[k]);
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Records that the participants with indices i and j overlap.
+		 */
+		private void add(int i, int j) {
+			if (overlaps.length < 2 * overlapCount + 2) {
+				overlaps = Arrays.copyOf(overlaps, overlaps.length * 2);
+			}
+			overlaps[2 * overlapCount] = i;
+			overlaps[2 * overlapCount + 1] = j;
+			overlapCount++;
+		}
+	}
+}
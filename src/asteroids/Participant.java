@@ -17,22 +17,75 @@ import static asteroids.Constants.*;
  * that extends it and implements its abstract methods
  */
 public abstract class Participant {
+	// Which classes override move, and so cannot be moved in bulk
+	private final static ClassValue<Boolean> MOVES_ITSELF = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("move").getDeclaringClass() != Participant.class;
+			} catch (NoSuchMethodException e) {
+				return true;
+			}
+		}
+	};
+
 	// Speed in pixels per second in the horizontal (x) and vertical (y)
-	// directions
+	// directions. Used only while the Participant is not in a store.
 	private double speedX, speedY;
 
-	// Amount by which this Participant's outline is rotated in radians
+	// Amount by which this Participant's outline is rotated in radians. Used
+	// only while the Participant is not in a store.
 	private double rotation;
 
-	// Current position of the Participant's center
+	// Current position of the Participant's center. Used only while the
+	// Participant is not in a store.
 	private double x, y;
 
-	// Border of the Participant that is used for drawing
-	private Shape border;
+	// The store that holds the speed, rotation and position while the
+	// Participant is in the game, or null, and its handle there
+	private KinematicStore store;
+	private int handle;
+
+	// The outline most recently returned by getOutline, and its vertices.
+	// local is either the shared copy for that outline or ownOutline.
+	private Shape outline;
+	private OutlineGeometry local;
+	private OutlineGeometry ownOutline;
+
+	// Vertices of the outline in screen coordinates as of the last call to
+	// move. This is the border that is drawn and tested for overlaps. It is
+	// null until the first move.
+	private OutlineGeometry border;
+	private OutlineGeometry borderBuffer;
+
+	// Position at which the border was placed by the last two moves
+	private double borderX, borderY, prevBorderX, prevBorderY;
+
+	// Rotation of the outline in the border, and its cosine and sine
+	private double borderRotation, borderCos, borderSin;
+
+	// Cosine and sine of trigRotation, which is the rotation they were last
+	// computed for
+	private double cos, sin, trigRotation;
+
+	// Reused when drawing the border
+	private Path2D.Double path;
 
 	// True if the Participant is expired
 	private boolean expired;
 
+	// The state this Participant has been added to, which is told when it
+	// expires, or null if it has not been added
+	private ParticipantState owner;
+
+	// Number of times this Participant has been reset for reuse. Countdowns
+	// started before the latest reset are not completed.
+	private int generation;
+
+	// True while this Participant is being restored from a snapshot in which
+	// it had a border
+	private boolean hasRestoredBorder;
+
 	/**
 	 * Constructs an active Participant with no velocity, rotation, or border.
 	 */
@@ -42,8 +95,126 @@ public abstract class Participant {
 		rotation = 0;
 		x = 0;
 		y = 0;
+		store = null;
+		outline = null;
+		local = null;
+		ownOutline = new OutlineGeometry();
 		border = null;
+		borderBuffer = new OutlineGeometry();
+		cos = 1;
+		sin = 0;
+		trigRotation = 0;
+		path = new Path2D.Double();
 		expired = false;
+		generation = 0;
+	}
+
+	/**
+	 * Returns this participant, which has expired and been removed from the
+	 * game, to the state of a newly constructed one so that it can be used
+	 * again: active, at rest at the origin, unrotated, and with no border.
+	 * Countdowns that were started for it before now will not complete. The
+	 * buffers used for its border are kept. Called by ParticipantPool before
+	 * handing the participant out; a subclass that overrides this must call
+	 * super.reset.
+	 */
+	protected void reset() {
+		if (store != null) {
+			throw new IllegalStateException("Participant is still in the game");
+		}
+		speedX = 0;
+		speedY = 0;
+		rotation = 0;
+		x = 0;
+		y = 0;
+		outline = null;
+		local = null;
+		border = null;
+		borderX = 0;
+		borderY = 0;
+		prevBorderX = 0;
+		prevBorderY = 0;
+		borderRotation = 0;
+		borderCos = 1;
+		borderSin = 0;
+		cos = 1;
+		sin = 0;
+		trigRotation = 0;
+		expired = false;
+		owner = null;
+		generation++;
+	}
+
+	/**
+	 * Returns the number of times this participant has been reset.
+	 */
+	int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Writes the state of this participant to snapshot. A subclass with state
+	 * of its own, including the countdowns it keeps, overrides this to write
+	 * that state after calling super.save, and overrides restore to read it
+	 * back in the same order.
+	 */
+	protected void save(GameSnapshot snapshot) {
+		snapshot.putDouble(getX());
+		snapshot.putDouble(getY());
+		snapshot.putDouble(getSpeedX());
+		snapshot.putDouble(getSpeedY());
+		snapshot.putDouble(getRotation());
+		snapshot.putBoolean(expired);
+		snapshot.putBoolean(border != null);
+		snapshot.putDouble(borderX);
+		snapshot.putDouble(borderY);
+		snapshot.putDouble(prevBorderX);
+		snapshot.putDouble(prevBorderY);
+		snapshot.putDouble(trigRotation);
+	}
+
+	/**
+	 * Reads back the state written by save into this participant, which has
+	 * just been created for the purpose and is not in the game. Only
+	 * countdowns that are still to be completed are saved, so the number of
+	 * times the participant was reset is not needed and starts again from
+	 * zero.
+	 */
+	protected void restore(GameSnapshot snapshot) {
+		x = snapshot.getDouble();
+		y = snapshot.getDouble();
+		speedX = snapshot.getDouble();
+		speedY = snapshot.getDouble();
+		rotation = snapshot.getDouble();
+		expired = snapshot.getBoolean();
+		hasRestoredBorder = snapshot.getBoolean();
+		borderX = snapshot.getDouble();
+		borderY = snapshot.getDouble();
+		prevBorderX = snapshot.getDouble();
+		prevBorderY = snapshot.getDouble();
+		computeTrig(snapshot.getDouble());
+	}
+
+	/**
+	 * Places the border where it was when this participant was saved, once
+	 * the whole participant, and so its outline, has been restored. The
+	 * border is only drawn until the next move places it again.
+	 */
+	void restoreBorder() {
+		if (hasRestoredBorder) {
+			outline = getOutline();
+			local = OutlineGeometry.getShared(outline);
+			if (local == null) {
+				ownOutline.load(outline);
+				local = ownOutline;
+			}
+			borderBuffer.transform(local, borderX, borderY, cos, sin);
+			border = borderBuffer;
+			borderRotation = trigRotation;
+			borderCos = cos;
+			borderSin = sin;
+			hasRestoredBorder = false;
+		}
 	}
 
 	/**
@@ -59,7 +230,70 @@ public abstract class Participant {
 	 * Marks this participant as expired
 	 */
 	private void setExpired() {
-		expired = true;
+		if (!expired) {
+			expired = true;
+			if (store != null) {
+				store.stopBulk(handle);
+			}
+			if (owner != null) {
+				owner.participantExpired(this);
+			}
+		}
+	}
+
+	/**
+	 * Returns the state this participant has been added to, or null.
+	 */
+	ParticipantState getOwner() {
+		return owner;
+	}
+
+	/**
+	 * Records the state this participant has been added to.
+	 */
+	void setOwner(ParticipantState owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Moves the speed, rotation and position of this participant into store.
+	 * Unless its class overrides move, the position will be advanced by the
+	 * store, and moveParticipants calls steer and finishMove instead of move.
+	 */
+	void attach(KinematicStore store) {
+		handle = store.add(this, x, y, speedX, speedY, rotation, !isMovedBySelf() && !expired);
+		this.store = store;
+	}
+
+	/**
+	 * Takes the speed, rotation and position of this participant back out of
+	 * its store.
+	 */
+	void detach() {
+		if (store != null) {
+			x = store.getX(handle);
+			y = store.getY(handle);
+			speedX = store.getSpeedX(handle);
+			speedY = store.getSpeedY(handle);
+			rotation = store.getRotation(handle);
+			store.remove(handle);
+			store = null;
+		}
+	}
+
+	/**
+	 * Reports whether this participant is in a store.
+	 */
+	boolean isAttached() {
+		return store != null;
+	}
+
+	/**
+	 * Reports whether this participant's class overrides move, so that it
+	 * must be moved by calling move rather than in bulk.
+	 */
+	boolean isMovedBySelf() {
+		return MOVES_ITSELF.get(getClass());
 	}
 
 	/**
@@ -75,8 +309,7 @@ public abstract class Participant {
 	 */
 	public void setVelocity(double speed, double direction) {
 		direction = normalize(direction);
-		speedX = Math.cos(direction) * speed;
-		speedY = Math.sin(direction) * speed;
+		setSpeeds(Math.cos(direction) * speed, Math.sin(direction) * speed);
 	}
 
 	/**
@@ -85,8 +318,7 @@ public abstract class Participant {
 	public void setDirection(double direction) {
 		direction = normalize(direction);
 		double speed = getSpeed();
-		speedX = Math.cos(direction) * speed;
-		speedY = Math.sin(direction) * speed;
+		setSpeeds(Math.cos(direction) * speed, Math.sin(direction) * speed);
 	}
 
 	/**
@@ -94,43 +326,81 @@ public abstract class Participant {
 	 */
 	public void setSpeed(double speed) {
 		double direction = getDirection();
-		speedX = Math.cos(direction) * speed;
-		speedY = Math.sin(direction) * speed;
+		setSpeeds(Math.cos(direction) * speed, Math.sin(direction) * speed);
 	}
 
 	/**
 	 * Returns the direction in radians
 	 */
 	public double getDirection() {
-		return Math.atan2(speedY, speedX);
+		return Math.atan2(getSpeedY(), getSpeedX());
 	}
 
 	/**
 	 * Return the speed, in pixels per frame
 	 */
 	public double getSpeed() {
+		double speedX = getSpeedX();
+		double speedY = getSpeedY();
 		return Math.sqrt(speedX * speedX + speedY * speedY);
 	}
 
+	/**
+	 * Returns the horizontal speed, in pixels per frame
+	 */
+	public double getSpeedX() {
+		return (store == null) ? speedX : store.getSpeedX(handle);
+	}
+
+	/**
+	 * Returns the vertical speed, in pixels per frame
+	 */
+	public double getSpeedY() {
+		return (store == null) ? speedY : store.getSpeedY(handle);
+	}
+
+	/**
+	 * Sets the horizontal and vertical speeds
+	 */
+	private void setSpeeds(double speedX, double speedY) {
+		if (store == null) {
+			this.speedX = speedX;
+			this.speedY = speedY;
+		} else {
+			store.setSpeed(handle, speedX, speedY);
+		}
+	}
+
 	/**
 	 * Sets the rotation (in radians) of this Participant
 	 */
 	public void setRotation(double radians) {
-		rotation = normalize(radians);
+		storeRotation(normalize(radians));
 	}
 
 	/**
 	 * Rotates this Participant by delta radians.
 	 */
 	public void rotate(double delta) {
-		rotation = normalize(rotation + delta);
+		storeRotation(normalize(getRotation() + delta));
 	}
 
 	/**
 	 * Returns the rotation of this participant
 	 */
 	public double getRotation() {
-		return rotation;
+		return (store == null) ? rotation : store.getRotation(handle);
+	}
+
+	/**
+	 * Sets the rotation without normalizing it
+	 */
+	private void storeRotation(double rotation) {
+		if (store == null) {
+			this.rotation = rotation;
+		} else {
+			store.setRotation(handle, rotation);
+		}
 	}
 
 	/**
@@ -152,14 +422,13 @@ public abstract class Participant {
 	 */
 	public void accelerate(double delta) {
 		// Compute new speeds
-		speedX += delta * Math.cos(rotation);
-		speedY += delta * Math.sin(rotation);
+		double rotation = getRotation();
+		setSpeeds(getSpeedX() + delta * Math.cos(rotation), getSpeedY() + delta * Math.sin(rotation));
 
 		// Enforce the speed limit
 		if (getSpeed() > SPEED_LIMIT) {
 			double direction = getDirection();
-			speedX = SPEED_LIMIT * Math.cos(direction);
-			speedY = SPEED_LIMIT * Math.sin(direction);
+			setSpeeds(SPEED_LIMIT * Math.cos(direction), SPEED_LIMIT * Math.sin(direction));
 		}
 	}
 
@@ -168,12 +437,14 @@ public abstract class Participant {
 	 * direction of motion.
 	 */
 	public void applyFriction(double coefficientOfFriction) {
+		double speedX = getSpeedX();
+		double speedY = getSpeedY();
 		if (speedX != 0 || speedY != 0) {
 			double speed = getSpeed();
 			double deltaX = coefficientOfFriction * speedX / speed;
 			double deltaY = coefficientOfFriction * speedY / speed;
-			speedX = (Math.abs(deltaX) > Math.abs(speedX)) ? 0 : (speedX + deltaX);
-			speedY = (Math.abs(deltaY) > Math.abs(speedY)) ? 0 : (speedY + deltaY);
+			setSpeeds((Math.abs(deltaX) > Math.abs(speedX)) ? 0 : (speedX + deltaX),
+					(Math.abs(deltaY) > Math.abs(speedY)) ? 0 : (speedY + deltaY));
 		}
 	}
 
@@ -181,22 +452,26 @@ public abstract class Participant {
 	 * Sets the position of the center of the participant
 	 */
 	public void setPosition(double x, double y) {
-		this.x = x;
-		this.y = y;
+		if (store == null) {
+			this.x = x;
+			this.y = y;
+		} else {
+			store.setPosition(handle, x, y);
+		}
 	}
 
 	/**
 	 * Gets the x coordinate of the center of the participant
 	 */
 	public double getX() {
-		return x;
+		return (store == null) ? x : store.getX(handle);
 	}
 
 	/**
 	 * Gets the y coordinate of the center of the participant
 	 */
 	public double getY() {
-		return y;
+		return (store == null) ? y : store.getY(handle);
 	}
 
 	/**
@@ -223,38 +498,114 @@ public abstract class Participant {
 	}
 
 	/**
-	 * Moves this participant to reflect one tick of the clock.
+	 * Called once per tick, before the position changes, to adjust the
+	 * velocity or rotation. Does nothing unless overridden.
+	 */
+	protected void steer() {
+	}
+
+	/**
+	 * Moves this participant to reflect one tick of the clock. Participants
+	 * in the game are normally moved in bulk instead: steer is called, the
+	 * store advances the position and finishMove is called. A subclass that
+	 * overrides this method is moved by calling it.
 	 */
 	public void move() {
-		// Get the original outline
+		steer();
+		setPosition(getX() + getSpeedX(), getY() + getSpeedY());
+		finishMove();
+	}
+
+	/**
+	 * Completes a move after the position has changed: places the border and
+	 * wraps around the edges of the screen.
+	 */
+	void finishMove() {
+		// Get the original outline, flattening it again only if it changed
 		Shape original = getOutline();
+		if (original != outline) {
+			outline = original;
+			local = OutlineGeometry.getShared(original);
+			if (local == null) {
+				ownOutline.load(original);
+				local = ownOutline;
+			}
+		}
+
+		// The position has already changed to reflect participant motion
+		double x = getX();
+		double y = getY();
 
-		// Change the position to reflect participant motion
-		x += speedX;
-		y += speedY;
+		// Remember where the border was placed last time so that drawing can
+		// interpolate between the two
+		prevBorderX = (border == null) ? x : borderX;
+		prevBorderY = (border == null) ? y : borderY;
+		borderX = x;
+		borderY = y;
 
 		// Translate and rotate the original to reflect the accumulated motion
-		AffineTransform trans = AffineTransform.getTranslateInstance(x, y);
-		trans.concatenate(AffineTransform.getRotateInstance(rotation));
-		border = trans.createTransformedShape(original);
+		updateTrig();
+		borderBuffer.transform(local, x, y, cos, sin);
+		border = borderBuffer;
+		borderRotation = trigRotation;
+		borderCos = cos;
+		borderSin = sin;
 
 		// If the element has gone sufficiently far out of bounds, move it to
 		// the other side of the screen. This change will take effect next time.
-		Rectangle2D bounds = border.getBounds2D();
-		if (bounds.getMaxX() < 0) {
-			x += SIZE + (bounds.getMaxX() - bounds.getMinX());
+		double width = border.getMaxX() - border.getMinX();
+		double height = border.getMaxY() - border.getMinY();
+		if (border.getMaxX() < 0) {
+			x += SIZE + width;
+		}
+		if (border.getMinX() >= SIZE) {
+			x += -SIZE - width;
 		}
-		if (bounds.getMinX() >= SIZE) {
-			x += -SIZE - (bounds.getMaxX() - bounds.getMinX());
+		if (border.getMaxY() < 0) {
+			y += SIZE + height;
 		}
-		if (bounds.getMaxY() < 0) {
-			y += SIZE + (bounds.getMaxY() - bounds.getMinY());
+		if (border.getMinY() >= SIZE) {
+			y += -SIZE - height;
 		}
-		if (bounds.getMinY() >= SIZE) {
-			y += -SIZE - (bounds.getMaxY() - bounds.getMinY());
+		if (x != borderX || y != borderY) {
+			setPosition(x, y);
+		}
+	}
+
+	/**
+	 * Recomputes the cached cosine and sine if the rotation has changed since
+	 * they were computed. Like AffineTransform, quarter turns are made exact.
+	 */
+	private void updateTrig() {
+		computeTrig(getRotation());
+	}
+
+	/**
+	 * Recomputes the cached cosine and sine for the given rotation unless
+	 * they were last computed for it.
+	 */
+	private void computeTrig(double rotation) {
+		if (rotation != trigRotation) {
+			trigRotation = rotation;
+			sin = Math.sin(rotation);
+			cos = Math.cos(rotation);
+			if (sin == 1.0 || sin == -1.0) {
+				cos = 0.0;
+			} else if (cos == 1.0 || cos == -1.0) {
+				sin = 0.0;
+			}
 		}
 	}
 
+	/**
+	 * Returns the border of this participant in screen coordinates as of its
+	 * last move, or null if it has never moved. Used by the collision
+	 * broadphase.
+	 */
+	OutlineGeometry getBorder() {
+		return border;
+	}
+
 	/**
 	 * Transforms the point just like the participant is transformed before it
 	 * is displayed. This can be used to figure out where some point of the
@@ -262,28 +613,136 @@ public abstract class Participant {
 	 * useful for computing the tip of a ship, for example.)
 	 */
 	public void transformPoint(Point2D.Double point) {
-		AffineTransform trans = AffineTransform.getTranslateInstance(x, y);
-		trans.concatenate(AffineTransform.getRotateInstance(rotation));
-		trans.transform(point, point);
+		updateTrig();
+		double px = point.x;
+		double py = point.y;
+		point.x = cos * px - sin * py + getX();
+		point.y = sin * px + cos * py + getY();
 	}
 
 	/**
 	 * Reports whether this participant overlaps with p.
 	 */
 	public boolean overlaps(Participant p) {
-		Area a = new Area(border);
-		a.intersect(new Area(p.border));
-		return !a.isEmpty();
+		return border != null && p.border != null && testOverlap(p).isCollision();
+	}
+
+	/**
+	 * Tests whether the borders of this participant and p, both of which must
+	 * have been placed, overlap, and returns the stage of the test that
+	 * settled it. The circles are placed where the borders were, which is not
+	 * always where getX and getY say, since a participant that wraps around an
+	 * edge is moved after its border is placed.
+	 *
+	 * If either participant is swept and the two do not overlap where they
+	 * were placed, each swept one is traced back along its last move, relative
+	 * to the other, and the two collide if it passed into the other on the
+	 * way.
+	 */
+	OverlapStage testOverlap(Participant p) {
+		OverlapStage stage = testPlacement(p);
+		if (stage == OverlapStage.OVERLAP || !(isSwept() || p.isSwept())) {
+			return stage;
+		}
+		double moveX = getMoveX() - p.getMoveX();
+		double moveY = getMoveY() - p.getMoveY();
+		if ((isSwept() && OutlineGeometry.sweptInto(border, moveX, moveY, p.border))
+				|| (p.isSwept() && OutlineGeometry.sweptInto(p.border, -moveX, -moveY, border))) {
+			return OverlapStage.SWEPT;
+		}
+		return stage;
+	}
+
+	/**
+	 * Tests whether the borders of this participant and p overlap where they
+	 * were placed, and returns the stage of the test that settled it.
+	 */
+	private OverlapStage testPlacement(Participant p) {
+		double dx = p.borderX - borderX;
+		double dy = p.borderY - borderY;
+		double reach = local.getRadius() + p.local.getRadius();
+		if (reach < 0 || dx * dx + dy * dy > reach * reach) {
+			return OverlapStage.CIRCLE;
+		}
+		if ((local.getCircleCount() > 1 || p.local.getCircleCount() > 1)
+				&& !OutlineGeometry.circlesMeet(local, borderCos, borderSin, p.local, p.borderCos, p.borderSin, dx, dy)) {
+			return OverlapStage.CIRCLE_COVER;
+		}
+		if (!OutlineGeometry.boxesOverlap(border, p.border)) {
+			return OverlapStage.BOUNDING_BOX;
+		}
+		return OutlineGeometry.intersects(border, p.border) ? OverlapStage.OVERLAP : OverlapStage.OUTLINE;
+	}
+
+	/**
+	 * Returns the offset along one axis that reaches the same place as the
+	 * given one but takes the short way around the edges of the screen. The
+	 * result lies between -SIZE/2 and SIZE/2.
+	 */
+	public static double shortestOffset(double offset) {
+		return offset - SIZE * Math.floor(offset / SIZE + 0.5);
+	}
+
+	/**
+	 * Reports whether this participant moves far enough in one move to pass
+	 * through a small participant without ever overlapping it, so that
+	 * collisions with it must be tested along its last move. Fast
+	 * participants such as bullets override this to return true.
+	 */
+	protected boolean isSwept() {
+		return false;
+	}
+
+	/**
+	 * Returns how far the border moved along the x axis in the last move, or 0
+	 * if it has only just been placed or jumped to the other side of the
+	 * screen.
+	 */
+	double getMoveX() {
+		double move = borderX - prevBorderX;
+		return (Math.abs(move) < SIZE / 2) ? move : 0;
+	}
+
+	/**
+	 * Returns how far the border moved along the y axis in the last move, as
+	 * for getMoveX.
+	 */
+	double getMoveY() {
+		double move = borderY - prevBorderY;
+		return (Math.abs(move) < SIZE / 2) ? move : 0;
+	}
+
+	/**
+	 * Adds this participant, as placed by its last move, to frame. Does
+	 * nothing if it has not been placed yet.
+	 */
+	void publish(RenderFrame frame) {
+		if (border != null) {
+			frame.add(outline, local, local != ownOutline, borderX, borderY, prevBorderX, prevBorderY, borderRotation,
+					borderCos, borderSin, getColor());
+		}
+	}
+
+	/**
+	 * Returns the color in which this participant is drawn. Subclasses whose
+	 * color changes override this.
+	 */
+	public Color getColor() {
+		return Color.WHITE;
 	}
 
 	/**
-	 * Draws this participant
+	 * Draws this participant in its color where its last move placed it. The
+	 * screen itself paints from a RenderFrame instead.
 	 */
 	public void draw(Graphics2D g) {
-		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setColor(getColor());
 		if (border == null) {
-			border = getOutline();
+			g.draw(getOutline());
+		} else {
+			path.reset();
+			border.appendTo(path, 0, 0);
+			g.draw(path);
 		}
-		g.draw(border);
 	}
 }
@@ -1,51 +1,132 @@
 package asteroids;
 
-import javax.swing.*;
-import java.awt.event.*;
-
 /**
  * Provides objects that wait for a certain amount of time to pass before making
  * a callback to a Participant's countdownComplete method.
+ * 
+ * Time is measured by the {@link asteroids.GameClock} of the controller whose
+ * game the participant is in, which advances once per frame of the game. The
+ * callback is made on the thread that drives the clock, and countdowns do not
+ * advance while the game is paused.
  */
-public class ParticipantCountdownTimer implements ActionListener {
+public class ParticipantCountdownTimer {
 	// Payload that is passed to the countdownComplete method when it is called
 	private Object payload;
 
-	// Internal timer
-	private Timer timer;
+	// Clock on which the countdown is scheduled
+	private GameClock clock;
 
 	// Participant to be notified when time expires
 	private Participant participant;
 
+	// The generation of the participant when the countdown was started
+	private int generation;
+
+	// Tick of the clock on which the countdown completes
+	long due;
+
+	// Links and list number used by the clock. list is -1 when the timer is
+	// not scheduled.
+	ParticipantCountdownTimer prev, next;
+	int list = -1;
+
 	/**
 	 * Constructs an object that waits for the given number of milliseconds to
-	 * pass before invoking the countdownComplete method on p, passing null as
-	 * its parameter. The call is not made if p has expired.
+	 * pass on the clock of controller before invoking the countdownComplete
+	 * method on p, passing null as its parameter. The call is not made if p
+	 * has expired.
 	 */
-	public ParticipantCountdownTimer(Participant p, int msecs) {
-		this(p, null, msecs);
+	public ParticipantCountdownTimer(Participant p, int msecs, Controller controller) {
+		this(p, null, msecs, controller);
 	}
 
 	/**
 	 * Constructs an object that waits for the given number of milliseconds to
-	 * pass before invoking the countdownComplete method on p, passing the
-	 * payload as its parameter. The call is not made if p has expired.
+	 * pass on the clock of controller before invoking the countdownComplete
+	 * method on p, passing the payload as its parameter. The call is not made
+	 * if p has expired.
 	 */
-	public ParticipantCountdownTimer(Participant p, Object payload, int msecs) {
+	public ParticipantCountdownTimer(Participant p, Object payload, int msecs, Controller controller) {
 		this.participant = p;
 		this.payload = payload;
-		timer = new Timer(msecs, this);
-		timer.start();
+		generation = p.getGeneration();
+		clock = controller.getClock();
+		clock.schedule(this, msecs);
+	}
+
+	/**
+	 * Constructs a countdown that is not scheduled, to be filled in by a
+	 * GameSnapshot that is being restored.
+	 */
+	ParticipantCountdownTimer() {
+	}
+
+	/**
+	 * Sets up a countdown read from a snapshot for the participant's current
+	 * generation. It is not scheduled until the clock is restored.
+	 */
+	void restore(Participant p, Object payload, GameClock clock, long due) {
+		this.participant = p;
+		this.payload = payload;
+		this.generation = p.getGeneration();
+		this.clock = clock;
+		this.due = due;
+	}
+
+	/**
+	 * Returns the participant that is notified.
+	 */
+	Participant getParticipant() {
+		return participant;
+	}
+
+	/**
+	 * Returns the payload passed to the participant.
+	 */
+	Object getPayload() {
+		return payload;
+	}
+
+	/**
+	 * Reports whether the callback will be made if the countdown completes
+	 * now, which it will not if the participant has expired or been reset
+	 * since the countdown was started.
+	 */
+	boolean isLive() {
+		return !participant.isExpired() && participant.getGeneration() == generation;
+	}
+
+	/**
+	 * Starts the countdown over so that it completes msecs milliseconds from
+	 * now. This can be called from countdownComplete to repeat a countdown
+	 * without creating a new timer.
+	 */
+	public void restart(int msecs) {
+		generation = participant.getGeneration();
+		clock.schedule(this, msecs);
+	}
+
+	/**
+	 * Stops the countdown so that the callback is never made.
+	 */
+	public void cancel() {
+		clock.cancel(this);
+	}
+
+	/**
+	 * Reports whether the countdown is still running.
+	 */
+	public boolean isPending() {
+		return list >= 0;
 	}
 
 	/**
-	 * When the interval has passed, stops the timer and makes the callback, as
-	 * long as the participant has not expired.
+	 * When the interval has passed, makes the callback, as long as the
+	 * participant has not expired and has not been reset for reuse since the
+	 * countdown was started.
 	 */
-	@Override
-	public void actionPerformed(ActionEvent e) {
-		timer.stop();
-		if (!participant.isExpired()) {
+	void complete() {
+		if (isLive()) {
 			participant.countdownComplete(payload);
 		}
 	}
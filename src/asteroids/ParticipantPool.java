@@ -0,0 +1,192 @@
+package asteroids;
+
+import asteroids.participants.AlienBullet;
+import asteroids.participants.AlienDebris;
+import asteroids.participants.BossBullet;
+import asteroids.participants.Debris;
+import asteroids.participants.Dust;
+import asteroids.participants.PlayerBullet;
+
+/**
+ * Keeps expired participants of a few short-lived types so that they can be
+ * used again instead of being thrown away and allocated afresh. Bullets, dust
+ * and debris are created by the dozen in a busy game and each lasts no more
+ * than a couple of seconds.
+ *
+ * Only participants whose class is exactly one of the pooled types are kept,
+ * and no more than a fixed number of each. A participant that is taken from
+ * the pool has been reset to the state of a newly constructed one and must be
+ * set up again by its class before it is added to the game.
+ */
+public class ParticipantPool {
+	// The types that are pooled
+	private final static Class<?>[] POOLED = { PlayerBullet.class, AlienBullet.class, BossBullet.class, Dust.class,
+			Debris.class, AlienDebris.class };
+
+	// The most participants of each pooled type that are kept
+	private final static int[] CAPACITY = { 16, 16, 16, 64, 8, 32 };
+
+	// The index in POOLED of each class, or -1 if it is not pooled
+	private final static ClassValue<Integer> INDEX = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			for (int t = 0; t < POOLED.length; t++) {
+				if (POOLED[t] == type) {
+					return t;
+				}
+			}
+			return -1;
+		}
+	};
+
+	// The participants kept for each pooled type, and how many there are
+	private final Participant[][] free;
+	private final int[] sizes;
+
+	// Number of times a participant of each type was asked for and found, or
+	// asked for and not found, and the number of expired ones that were turned
+	// away because the pool was full
+	private final long[] hits;
+	private final long[] misses;
+	private final long[] discards;
+
+	/**
+	 * Creates an empty pool.
+	 */
+	public ParticipantPool() {
+		free = new Participant[POOLED.length][];
+		for (int t = 0; t < POOLED.length; t++) {
+			free[t] = new Participant[CAPACITY[t]];
+		}
+		sizes = new int[POOLED.length];
+		hits = new long[POOLED.length];
+		misses = new long[POOLED.length];
+		discards = new long[POOLED.length];
+	}
+
+	/**
+	 * Returns a reset participant of the given type from the pool, or null if
+	 * the pool has none. Throws an IllegalArgumentException if the type is not
+	 * pooled.
+	 */
+	public <T extends Participant> T take(Class<T> type) {
+		int t = index(type);
+		if (sizes[t] == 0) {
+			misses[t]++;
+			return null;
+		}
+		hits[t]++;
+		Participant p = free[t][--sizes[t]];
+		free[t][sizes[t]] = null;
+		p.reset();
+		return type.cast(p);
+	}
+
+	/**
+	 * Keeps p, which has expired and been removed from the game, if it is of a
+	 * pooled type and there is room for it. Returns true if it was kept.
+	 */
+	public boolean recycle(Participant p) {
+		int t = INDEX.get(p.getClass());
+		if (t < 0 || !p.isExpired() || p.isAttached()) {
+			return false;
+		}
+		if (sizes[t] == free[t].length) {
+			discards[t]++;
+			return false;
+		}
+		free[t][sizes[t]++] = p;
+		return true;
+	}
+
+	/**
+	 * Throws away every participant that is being kept. The statistics are not
+	 * affected.
+	 */
+	public void clear() {
+		for (int t = 0; t < POOLED.length; t++) {
+			for (int i = 0; i < sizes[t]; i++) {
+				free[t][i] = null;
+			}
+			sizes[t] = 0;
+		}
+	}
+
+	/**
+	 * Returns the number of participants of the given type that are being
+	 * kept.
+	 */
+	public int size(Class<? extends Participant> type) {
+		return sizes[index(type)];
+	}
+
+	/**
+	 * Returns the number of times a participant of the given type was taken
+	 * from the pool.
+	 */
+	public long getHits(Class<? extends Participant> type) {
+		return hits[index(type)];
+	}
+
+	/**
+	 * Returns the number of times a participant of the given type was asked
+	 * for when the pool had none.
+	 */
+	public long getMisses(Class<? extends Participant> type) {
+		return misses[index(type)];
+	}
+
+	/**
+	 * Returns the number of expired participants of the given type that were
+	 * not kept because the pool was full.
+	 */
+	public long getDiscards(Class<? extends Participant> type) {
+		return discards[index(type)];
+	}
+
+	/**
+	 * Returns the number of times a participant of any type was taken from the
+	 * pool.
+	 */
+	public long getHits() {
+		return sum(hits);
+	}
+
+	/**
+	 * Returns the number of times a participant of any type was asked for when
+	 * the pool had none.
+	 */
+	public long getMisses() {
+		return sum(misses);
+	}
+
+	/**
+	 * Returns the number of expired participants of any type that were not
+	 * kept because the pool was full.
+	 */
+	public long getDiscards() {
+		return sum(discards);
+	}
+
+	/**
+	 * Returns the total of the counts.
+	 */
+	private static long sum(long[] counts) {
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the index in POOLED of type.
+	 */
+	private static int index(Class<?> type) {
+		int t = INDEX.get(type);
+		if (t < 0) {
+			throw new IllegalArgumentException("Not a pooled type: " + type.getName());
+		}
+		return t;
+	}
+}
@@ -0,0 +1,276 @@
+package asteroids;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import asteroids.participants.Alien;
+import asteroids.participants.Asteroid;
+import asteroids.participants.BossAlien;
+import asteroids.participants.PlayerBullet;
+import asteroids.participants.Ship;
+
+/**
+ * Keeps a live count and a list of the participants of each of a few types
+ * that the game asks about, so that those questions do not need a scan of
+ * every participant. A participant is counted from the moment it is added to
+ * the game until the moment it expires, including while its addition is
+ * pending.
+ *
+ * A participant is entered under every tracked type that it is an instance
+ * of. Counts are kept exact at all times. Expired participants are left in the
+ * lists until the next call to purge, but are never returned from them.
+ *
+ * The lists also answer questions about where participants of a type are:
+ * the nearest to a point, those within a distance of it, and the k nearest.
+ * Distances are measured the short way around the edges of the screen, which
+ * participants cross to reappear on the other side.
+ */
+public class ParticipantRegistry {
+	// The types that are tracked
+	private final static Class<?>[] TRACKED = { Asteroid.class, Alien.class, BossAlien.class, PlayerBullet.class,
+			Ship.class };
+
+	// The indices in TRACKED of the types that each class is an instance of
+	private final static ClassValue<int[]> MEMBERSHIP = new ClassValue<int[]>() {
+		@Override
+		protected int[] computeValue(Class<?> type) {
+			int count = 0;
+			int[] indices = new int[TRACKED.length];
+			for (int t = 0; t < TRACKED.length; t++) {
+				if (TRACKED[t].isAssignableFrom(type)) {
+					indices[count++] = t;
+				}
+			}
+			int[] result = new int[count];
+			System.arraycopy(indices, 0, result, 0, count);
+			return result;
+		}
+	};
+
+	// Number of unexpired participants of each tracked type
+	private final int[] counts;
+
+	// Participants of each tracked type, in the order they were added
+	private final ArrayList<ArrayList<Participant>> lists;
+
+	// Squared distances of the participants found by the last call to
+	// findNearest(type, x, y, k, found), in the same order
+	private double[] distances;
+
+	/**
+	 * Creates an empty registry.
+	 */
+	public ParticipantRegistry() {
+		counts = new int[TRACKED.length];
+		lists = new ArrayList<ArrayList<Participant>>(TRACKED.length);
+		for (int t = 0; t < TRACKED.length; t++) {
+			lists.add(new ArrayList<Participant>());
+		}
+		distances = new double[8];
+	}
+
+	/**
+	 * Enters p under each tracked type it belongs to.
+	 */
+	public void add(Participant p) {
+		for (int t : MEMBERSHIP.get(p.getClass())) {
+			counts[t]++;
+			lists.get(t).add(p);
+		}
+	}
+
+	/**
+	 * Records that p, which was added earlier, has expired.
+	 */
+	public void expired(Participant p) {
+		for (int t : MEMBERSHIP.get(p.getClass())) {
+			counts[t]--;
+		}
+	}
+
+	/**
+	 * Removes expired participants from the lists.
+	 */
+	public void purge() {
+		for (ArrayList<Participant> list : lists) {
+			int kept = 0;
+			for (int i = 0; i < list.size(); i++) {
+				Participant p = list.get(i);
+				if (!p.isExpired()) {
+					list.set(kept++, p);
+				}
+			}
+			list.subList(kept, list.size()).clear();
+		}
+	}
+
+	/**
+	 * Forgets every participant.
+	 */
+	public void clear() {
+		for (int t = 0; t < TRACKED.length; t++) {
+			counts[t] = 0;
+			lists.get(t).clear();
+		}
+	}
+
+	/**
+	 * Returns the number of unexpired participants of the given type, which
+	 * must be one of the tracked types. Throws an IllegalArgumentException if
+	 * it is not.
+	 */
+	public int count(Class<? extends Participant> type) {
+		return counts[index(type)];
+	}
+
+	/**
+	 * Returns an iterator over the unexpired participants of the given type,
+	 * which must be one of the tracked types, in the order they were added.
+	 * Throws an IllegalArgumentException if it is not. The iterator must not
+	 * be used after participants have been added or purged.
+	 */
+	public <T extends Participant> Iterator<T> iterator(final Class<T> type) {
+		final ArrayList<Participant> list = lists.get(index(type));
+		return new Iterator<T>() {
+			// Index of the next participant to be returned
+			private int next = skip(0);
+
+			@Override
+			public boolean hasNext() {
+				return next < list.size();
+			}
+
+			@Override
+			public T next() {
+				if (next >= list.size()) {
+					throw new NoSuchElementException();
+				}
+				T p = type.cast(list.get(next));
+				next = skip(next + 1);
+				return p;
+			}
+
+			/**
+			 * Returns the index of the first unexpired participant at or after
+			 * i.
+			 */
+			private int skip(int i) {
+				while (i < list.size() && list.get(i).isExpired()) {
+					i++;
+				}
+				return i;
+			}
+		};
+	}
+
+	/**
+	 * Returns the unexpired participant of the given type, which must be one
+	 * of the tracked types, nearest to (x, y) around the edges of the screen,
+	 * or null if there is none. Of participants equally near, the one added
+	 * first is returned.
+	 */
+	public <T extends Participant> T findNearest(Class<T> type, double x, double y) {
+		ArrayList<Participant> list = lists.get(index(type));
+		Participant nearest = null;
+		double best = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < list.size(); i++) {
+			Participant p = list.get(i);
+			if (!p.isExpired()) {
+				double d = distanceSquared(p, x, y);
+				if (d < best) {
+					best = d;
+					nearest = p;
+				}
+			}
+		}
+		return type.cast(nearest);
+	}
+
+	/**
+	 * Adds to found each unexpired participant of the given type, which must
+	 * be one of the tracked types, that is no further than radius from (x, y)
+	 * around the edges of the screen, in the order they were added. Returns
+	 * the number added.
+	 */
+	public <T extends Participant> int findWithin(Class<T> type, double x, double y, double radius,
+			List<? super T> found) {
+		ArrayList<Participant> list = lists.get(index(type));
+		double limit = radius * radius;
+		int count = 0;
+		for (int i = 0; i < list.size(); i++) {
+			Participant p = list.get(i);
+			if (!p.isExpired() && distanceSquared(p, x, y) <= limit) {
+				found.add(type.cast(p));
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Replaces the contents of found with the k unexpired participants of the
+	 * given type, which must be one of the tracked types, that are nearest to
+	 * (x, y) around the edges of the screen, nearest first. Fewer are found if
+	 * there are fewer. Returns the number found. Throws an
+	 * IllegalArgumentException if k is negative.
+	 */
+	public <T extends Participant> int findNearest(Class<T> type, double x, double y, int k, List<? super T> found) {
+		if (k < 0) {
+			throw new IllegalArgumentException("Negative number of participants: " + k);
+		}
+		ArrayList<Participant> list = lists.get(index(type));
+		found.clear();
+		if (distances.length < k) {
+			distances = new double[Math.max(k, distances.length * 2)];
+		}
+
+		// Keep the nearest found so far in order, inserting each closer one
+		// in its place and dropping the furthest once there are k
+		int count = 0;
+		for (int i = 0; i < list.size(); i++) {
+			Participant p = list.get(i);
+			if (p.isExpired()) {
+				continue;
+			}
+			double d = distanceSquared(p, x, y);
+			if (count == k && (k == 0 || d >= distances[k - 1])) {
+				continue;
+			}
+			int j = (count < k) ? count++ : k - 1;
+			if (found.size() == count) {
+				found.remove(count - 1);
+			}
+			while (j > 0 && distances[j - 1] > d) {
+				distances[j] = distances[j - 1];
+				j--;
+			}
+			distances[j] = d;
+			found.add(j, type.cast(p));
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the square of the distance from (x, y) to p the short way
+	 * around the edges of the screen.
+	 */
+	private static double distanceSquared(Participant p, double x, double y) {
+		double dx = Participant.shortestOffset(p.getX() - x);
+		double dy = Participant.shortestOffset(p.getY() - y);
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Returns the index in TRACKED of type.
+	 */
+	private static int index(Class<?> type) {
+		for (int t = 0; t < TRACKED.length; t++) {
+			if (TRACKED[t] == type) {
+				return t;
+			}
+		}
+		throw new IllegalArgumentException("Not a tracked type: " + type.getName());
+	}
+}
@@ -1,8 +1,10 @@
 package asteroids;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 import asteroids.participants.Alien;
@@ -13,37 +15,189 @@ import asteroids.participants.PlayerBullet;
  * Keeps track of the Participants, their motions, and their collisions.
  */
 public class ParticipantState {
+	// Fewest participants for which the work of a move is shared among
+	// threads. With fewer, handing out the work costs more than it saves.
+	private final static int PARALLEL_THRESHOLD = 1000;
+
 	// The participants (asteroids, ships, etc.) that are involved in the game
 	private LinkedList<Participant> participants;
 
-	// Participants that are waiting to be added to the game
+	// Participants that are waiting to be added to the game, in the order in
+	// which they were added, so that the game plays out the same every time
 	private Set<Participant> pendingAdds;
 
+	// Counts and lists of the participants of the types the game asks about
+	private ParticipantRegistry registry;
+
+	// Positions, velocities and rotations of the participants in the game
+	private KinematicStore store;
+
+	// Expired participants of short-lived types that are kept for reuse
+	private ParticipantPool pool;
+
+	// The participants in list order as of the current collision check. A
+	// participant's position in this array is its index in the grid.
+	private Participant[] ordered;
+
+	// Broadphase used to find the pairs that might be colliding
+	private CollisionGrid grid;
+
+	// Shares the work of moving and testing for overlaps among threads, or
+	// null if all of it is done on the calling thread
+	private ParallelPhases parallel;
+
+	// Number of candidate pairs during the last collision check that were
+	// culled because neither participant reacts to the other, and the number
+	// that were tested for overlap
+	private int pairsCulled;
+	private int pairsTested;
+
+	// Number of pairs tested during the last collision check that left the
+	// test at each OverlapStage, and the totals over every check so far
+	private final int[] overlapResults;
+	private final long[] overlapTotals;
+
 	/**
 	 * Creates an empty ParticipantState.
 	 */
 	public ParticipantState() {
 		// No participants at the start
 		participants = new LinkedList<Participant>();
-		pendingAdds = new HashSet<Participant>();
+		pendingAdds = new LinkedHashSet<Participant>();
+		registry = new ParticipantRegistry();
+		store = new KinematicStore();
+		pool = new ParticipantPool();
+		ordered = new Participant[64];
+		grid = new CollisionGrid();
+		overlapResults = new int[OverlapStage.values().length];
+		overlapTotals = new long[OverlapStage.values().length];
+		setParallelism(Integer.getInteger("asteroids.parallelism", 1));
+	}
+
+	/**
+	 * Sets the number of threads among which the work of moving participants
+	 * and testing them for overlaps is shared when there are many of them.
+	 * With one thread, which is the default, all of it is done on the thread
+	 * that calls moveParticipants. The game comes out exactly the same either
+	 * way.
+	 */
+	public void setParallelism(int threads) {
+		if (parallel != null) {
+			parallel.shutdown();
+			parallel = null;
+		}
+		if (threads > 1) {
+			parallel = new ParallelPhases(threads);
+		}
+	}
+
+	/**
+	 * Returns the number of threads the work of a move is shared among.
+	 */
+	public int getParallelism() {
+		return (parallel == null) ? 1 : parallel.getParallelism();
 	}
 
 	/**
 	 * Clears out the state.
 	 */
 	public void clear() {
+		for (Participant p : pendingAdds) {
+			p.setOwner(null);
+		}
 		pendingAdds.clear();
 		for (Participant p : participants) {
+			p.setOwner(null);
 			Participant.expire(p);
+			p.detach();
+			pool.recycle(p);
 		}
 		participants.clear();
+		registry.clear();
+	}
+
+	/**
+	 * Writes the participants to snapshot: those in the game in list order,
+	 * the order in which they are held by the store, and those waiting to be
+	 * added.
+	 */
+	void save(GameSnapshot snapshot) {
+		snapshot.putInt(participants.size());
+		for (Participant p : participants) {
+			snapshot.putParticipant(p);
+		}
+		snapshot.putInt(store.size());
+		for (int i = 0; i < store.size(); i++) {
+			snapshot.putParticipant(store.getParticipant(i));
+		}
+		snapshot.putInt(pendingAdds.size());
+		for (Participant p : pendingAdds) {
+			snapshot.putParticipant(p);
+		}
+	}
+
+	/**
+	 * Clears out the state and reads back the participants written by save.
+	 */
+	void restore(GameSnapshot snapshot) {
+		clear();
+		int count = snapshot.getInt();
+		for (int i = 0; i < count; i++) {
+			Participant p = snapshot.getParticipant();
+			participants.add(p);
+			p.setOwner(this);
+			if (!p.isExpired()) {
+				registry.add(p);
+			}
+		}
+		if (snapshot.getInt() != count) {
+			throw new IllegalArgumentException("Participants in game snapshot do not match the store");
+		}
+		for (int i = 0; i < count; i++) {
+			Participant p = snapshot.getParticipant();
+			if (p == null || p.getOwner() != this || p.isAttached()) {
+				throw new IllegalArgumentException("Participants in game snapshot do not match the store");
+			}
+			p.attach(store);
+		}
+		count = snapshot.getInt();
+		for (int i = 0; i < count; i++) {
+			addParticipant(snapshot.getParticipant());
+		}
 	}
 
 	/**
 	 * Adds a new Participant
 	 */
 	public void addParticipant(Participant p) {
-		pendingAdds.add(p);
+		if (pendingAdds.add(p) && p.getOwner() != this && !p.isExpired()) {
+			p.setOwner(this);
+			registry.add(p);
+		}
+	}
+
+	/**
+	 * Returns an expired participant of the given type, reset so that it can be
+	 * set up and added again, or null if none is available. The type must be
+	 * one of the types that ParticipantPool keeps.
+	 */
+	public <T extends Participant> T reuse(Class<T> type) {
+		return pool.take(type);
+	}
+
+	/**
+	 * Returns the pool of expired participants, whose statistics show how
+	 * often participants have been reused.
+	 */
+	public ParticipantPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Called by p, which has been added, when it expires.
+	 */
+	void participantExpired(Participant p) {
+		registry.expired(p);
 	}
 
 	/**
@@ -57,66 +211,133 @@ public class ParticipantState {
 	 * Returns the number of asteroids that are active participants
 	 */
 	public int countAsteroids() {
-		int count = 0;
-		for (Participant p : participants) {
-			if (p instanceof Asteroid && !p.isExpired()) {
-				count++;
-			}
-		}
-		for (Participant p : pendingAdds) {
-			if (p instanceof Asteroid && !p.isExpired()) {
-				count++;
-			}
-		}
-		return count;
+		return registry.count(Asteroid.class);
 	}
 
 	/**
 	 * Returns the number of aliens that are active participants
 	 */
 	public int countAliens() {
-		int count = 0;
-		for (Participant p : participants) {
-			if (p instanceof Alien && !p.isExpired()) {
-				count++;
-			}
-		}
-		for (Participant p : pendingAdds) {
-			if (p instanceof Alien && !p.isExpired()) {
-				count++;
-			}
-		}
-		return count;
+		return registry.count(Alien.class);
 	}
 
 	/**
-	 * Returns the number of asteroids that are active participants
+	 * Returns the number of player bullets that are active participants
 	 */
 	public int countBullets() {
-		int count = 0;
-		for (Participant p : participants) {
-			if (p instanceof PlayerBullet && !p.isExpired()) {
-				count++;
-			}
-		}
-		for (Participant p : pendingAdds) {
-			if (p instanceof PlayerBullet && !p.isExpired()) {
-				count++;
-			}
-		}
-		return count;
+		return registry.count(PlayerBullet.class);
+	}
+
+	/**
+	 * Returns the number of active participants of the given type, which must
+	 * be one of the types that ParticipantRegistry tracks.
+	 */
+	public int count(Class<? extends Participant> type) {
+		return registry.count(type);
+	}
+
+	/**
+	 * Returns an iterator over the active participants of the given type,
+	 * which must be one of the types that ParticipantRegistry tracks.
+	 */
+	public <T extends Participant> Iterator<T> getParticipants(Class<T> type) {
+		return registry.iterator(type);
+	}
+
+	/**
+	 * Returns the active participant of the given type nearest to (x, y),
+	 * measuring the short way around the edges of the screen, or null if
+	 * there is none. The type must be one that ParticipantRegistry tracks.
+	 */
+	public <T extends Participant> T findNearest(Class<T> type, double x, double y) {
+		return registry.findNearest(type, x, y);
+	}
+
+	/**
+	 * Adds to found the active participants of the given type within radius
+	 * of (x, y), measuring the short way around the edges of the screen, and
+	 * returns how many were added. The type must be one that
+	 * ParticipantRegistry tracks.
+	 */
+	public <T extends Participant> int findWithin(Class<T> type, double x, double y, double radius,
+			List<? super T> found) {
+		return registry.findWithin(type, x, y, radius, found);
+	}
+
+	/**
+	 * Replaces the contents of found with the k active participants of the
+	 * given type nearest to (x, y), nearest first, measuring the short way
+	 * around the edges of the screen, and returns how many there were. The
+	 * type must be one that ParticipantRegistry tracks, and k must not be
+	 * negative.
+	 */
+	public <T extends Participant> int findNearest(Class<T> type, double x, double y, int k, List<? super T> found) {
+		return registry.findNearest(type, x, y, k, found);
+	}
+
+	/**
+	 * Returns the number of candidate pairs that were skipped during the last
+	 * collision check because a collision between them could have no effect.
+	 * When the check is shared among threads, this and getPairsTested include
+	 * pairs that a single thread would have passed over because one of the
+	 * two had expired earlier in the check.
+	 */
+	public int getPairsCulled() {
+		return pairsCulled;
+	}
+
+	/**
+	 * Returns the number of pairs that were tested for overlap during the last
+	 * collision check.
+	 */
+	public int getPairsTested() {
+		return pairsTested;
+	}
+
+	/**
+	 * Returns the number of pairs tested during the last collision check
+	 * whose test was settled at the given stage.
+	 */
+	public int getOverlapResults(OverlapStage stage) {
+		return overlapResults[stage.ordinal()];
+	}
+
+	/**
+	 * Returns the number of pairs tested since this ParticipantState was made
+	 * whose test was settled at the given stage.
+	 */
+	public long getOverlapTotal(OverlapStage stage) {
+		return overlapTotals[stage.ordinal()];
 	}
 
 	/**
 	 * Moves each of the active participants to simulate the passage of time.
 	 */
 	public void moveParticipants() {
-		// Move all of the active participants
-		for (Participant p : participants) {
-			if (!p.isExpired()) {
+		// Move all of the active participants. Most are moved in bulk: each
+		// steers, the store advances every position at once, and then each
+		// places its border. The rest move themselves. Only the bulk moves
+		// can be shared among threads, because steering and moving oneself
+		// may look at other participants.
+		int count = store.size();
+		for (int i = 0; i < count; i++) {
+			Participant p = store.getParticipant(i);
+			if (store.isBulk(i)) {
+				p.steer();
+			} else if (!p.isExpired()) {
 				p.move();
 			}
 		}
+		if (parallel != null && count >= PARALLEL_THRESHOLD) {
+			parallel.advance(store);
+		} else {
+			store.advance();
+			for (int i = 0; i < count; i++) {
+				if (store.isBulk(i)) {
+					store.getParticipant(i).finishMove();
+				}
+			}
+		}
 
 		// If there have been any collisions, deal with them. This may result
 		// in new participants being added or old ones expiring. We save those
@@ -128,13 +349,17 @@ public class ParticipantState {
 	}
 
 	/**
-	 * Completes any adds and removes that have been requested.
+	 * Completes any adds and removes that have been requested. Participants
+	 * that are removed are offered to the pool for reuse.
 	 */
 	private void completeAddsAndRemoves() {
 		// Note: These updates are saved up and done later to avoid modifying
 		// the participants list while it is being iterated over
 		for (Participant p : pendingAdds) {
-			participants.add(p);
+			if (!p.isAttached()) {
+				participants.add(p);
+				p.attach(store);
+			}
 		}
 		pendingAdds.clear();
 
@@ -143,31 +368,104 @@ public class ParticipantState {
 			Participant p = iter.next();
 			if (p.isExpired()) {
 				iter.remove();
+				p.setOwner(null);
+				p.detach();
+				pool.recycle(p);
 			}
 		}
+		registry.purge();
 	}
 
 	/**
 	 * Compares each pair of elements to detect collisions, then notifies all
 	 * listeners of any found. Deals with each pair only once. Never deals with
 	 * (p1,p2) and then again with (p2,p1).
+	 * 
+	 * Only pairs that share a cell of the grid are compared. They are visited
+	 * in the same order as a comparison of every pair would visit them: for
+	 * each p1 in list order, the p2 that follow it in the list are taken from
+	 * the back of the list towards p1. Pairs in which neither participant
+	 * reacts to the other are culled without being tested.
+	 * 
+	 * When there are many participants and more than one thread, the overlap
+	 * tests are shared among the threads first, and then the collisions found
+	 * are dealt with on this thread in the same order.
+	 * 
+	 * Package-private so that it can be benchmarked on its own.
 	 */
-	private void checkForCollisions() {
-		for (Participant p1 : participants) {
-			if (!p1.isExpired()) {
-				Iterator<Participant> iter = participants.descendingIterator();
-				while (iter.hasNext()) {
-					Participant p2 = iter.next();
-					if (p1 == p2)
-						break;
-					if (!p2.isExpired() && p1.overlaps(p2)) {
-						p1.collidedWith(p2);
-						p2.collidedWith(p1);
+	void checkForCollisions() {
+		pairsCulled = 0;
+		pairsTested = 0;
+		Arrays.fill(overlapResults, 0);
+		int count = fillGrid();
+		if (parallel != null && count >= PARALLEL_THRESHOLD) {
+			int found = parallel.findOverlaps(ordered, count, grid);
+			int[] overlaps = parallel.getOverlaps();
+			for (int k = 0; k < found; k++) {
+				Participant p1 = ordered[overlaps[2 * k]];
+				Participant p2 = ordered[overlaps[2 * k + 1]];
+				if (!p1.isExpired() && !p2.isExpired()) {
+					p1.collidedWith(p2);
+					p2.collidedWith(p1);
+				}
+			}
+			pairsCulled = parallel.getPairsCulled();
+			pairsTested = parallel.getPairsTested();
+			for (OverlapStage stage : OverlapStage.values()) {
+				overlapResults[stage.ordinal()] = parallel.getOverlapResults(stage);
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				Participant p1 = ordered[i];
+				if (!p1.isExpired() && p1.getBorder() != null) {
+					int found = grid.findCandidates(i, p1.getBorder(), p1.getMoveX(), p1.getMoveY());
+					int[] candidates = grid.getCandidates();
+					for (int k = found - 1; k >= 0; k--) {
+						Participant p2 = ordered[candidates[k]];
+						if (!p2.isExpired()) {
+							if (!CollisionFilter.canInteract(p1, p2)) {
+								pairsCulled++;
+							} else {
+								pairsTested++;
+								OverlapStage stage = p1.testOverlap(p2);
+								overlapResults[stage.ordinal()]++;
+								if (stage.isCollision()) {
+									p1.collidedWith(p2);
+									p2.collidedWith(p1);
+								}
+							}
+						}
+						if (p1.isExpired())
+							break;
 					}
-					if (p1.isExpired())
-						break;
 				}
 			}
 		}
+		Arrays.fill(ordered, 0, count, null);
+		for (int k = 0; k < overlapResults.length; k++) {
+			overlapTotals[k] += overlapResults[k];
+		}
+	}
+
+	/**
+	 * Copies the participants into the ordered array and enters each active
+	 * one into the grid. Returns the number of participants.
+	 */
+	private int fillGrid() {
+		int count = participants.size();
+		if (ordered.length < count) {
+			ordered = new Participant[Math.max(count, ordered.length * 2)];
+		}
+		grid.clear(count);
+		int i = 0;
+		for (Participant p : participants) {
+			ordered[i] = p;
+			OutlineGeometry border = p.getBorder();
+			if (!p.isExpired() && border != null) {
+				grid.insert(i, border, p.getMoveX(), p.getMoveY());
+			}
+			i++;
+		}
+		return count;
 	}
 }
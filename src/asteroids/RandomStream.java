@@ -0,0 +1,20 @@
+package asteroids;
+
+/**
+ * The separate streams of random numbers used by a game. Each is split off
+ * the game's seed, so drawing from one never changes what another produces:
+ * a game with more dust in it still gets the same asteroids. New streams must
+ * be added at the end, or the games produced by existing seeds will change.
+ */
+public enum RandomStream {
+	// Varieties, speeds and directions of asteroids
+	ASTEROIDS,
+	// Where aliens appear, how they move and where they aim
+	ALIENS,
+	// Dust and debris, including the wreckage of the boss
+	DEBRIS,
+	// Where the ship lands when it teleports
+	SHIP,
+	// Where shields are placed
+	SHIELDS
+}
@@ -0,0 +1,246 @@
+package asteroids;
+
+import java.awt.Color;
+import java.awt.Shape;
+import java.util.Arrays;
+import static asteroids.Constants.*;
+
+/**
+ * Everything needed to paint one state of the game: where each participant
+ * was placed by its last two moves, its rotation, its outline and its color,
+ * together with the values shown around the screen. The thread that runs the
+ * game fills a frame after each pass of steps and hands it to the event
+ * dispatch thread through a TripleBuffer, so painting never reads the
+ * participants themselves while they are being moved.
+ *
+ * Frames are reused. Their arrays grow when the game outgrows them and are
+ * kept from then on, so a frame that is filled again allocates nothing. Once
+ * published, a frame is not changed until the painter has let go of it.
+ */
+public class RenderFrame {
+	// Number of participants in the frame
+	private int count;
+
+	// Position of each participant after its last move and before it, and
+	// the cosine and sine of its rotation
+	private double[] x, y, prevX, prevY, cos, sin;
+
+	// Rotation of each participant
+	private double[] rotation;
+
+	// The shared outline of each participant, or null if its outline is not
+	// shared
+	private Shape[] outlines;
+
+	// The flattened outline of each participant in its own coordinates:
+	// either a shared one or one of copies
+	private OutlineGeometry[] geometries;
+
+	// Copies of the outlines that are not shared, and how many are in use
+	private OutlineGeometry[] copies;
+	private int copyCount;
+
+	// The color of each participant
+	private Color[] colors;
+
+	// The values shown around the screen, and the legend shown across it
+	private int lives, level, bossHealth;
+	private long score, bestScore;
+	private String legend;
+
+	/**
+	 * Creates an empty frame.
+	 */
+	public RenderFrame() {
+		int capacity = 64;
+		x = new double[capacity];
+		y = new double[capacity];
+		prevX = new double[capacity];
+		prevY = new double[capacity];
+		cos = new double[capacity];
+		sin = new double[capacity];
+		rotation = new double[capacity];
+		outlines = new Shape[capacity];
+		geometries = new OutlineGeometry[capacity];
+		colors = new Color[capacity];
+		copies = new OutlineGeometry[4];
+		legend = "";
+		bossHealth = -1;
+	}
+
+	/**
+	 * Empties the frame, ready to be filled again.
+	 */
+	public void clear() {
+		Arrays.fill(outlines, 0, count, null);
+		Arrays.fill(geometries, 0, count, null);
+		Arrays.fill(colors, 0, count, null);
+		count = 0;
+		copyCount = 0;
+	}
+
+	/**
+	 * Adds a participant whose outline is placed at (x, y) rotated by the
+	 * given angle, having been at (prevX, prevY) the move before. If shared is
+	 * true, local is the shared flattening of outline; otherwise it is copied,
+	 * since the participant may change it.
+	 */
+	void add(Shape outline, OutlineGeometry local, boolean shared, double x, double y, double prevX, double prevY,
+			double rotation, double cos, double sin, Color color) {
+		if (count == this.x.length) {
+			grow();
+		}
+		int i = count++;
+		this.x[i] = x;
+		this.y[i] = y;
+		this.prevX[i] = prevX;
+		this.prevY[i] = prevY;
+		this.rotation[i] = rotation;
+		this.cos[i] = cos;
+		this.sin[i] = sin;
+		this.colors[i] = color;
+		if (shared) {
+			outlines[i] = outline;
+			geometries[i] = local;
+		} else {
+			if (copyCount == copies.length) {
+				copies = Arrays.copyOf(copies, copyCount * 2);
+			}
+			if (copies[copyCount] == null) {
+				copies[copyCount] = new OutlineGeometry();
+			}
+			OutlineGeometry copy = copies[copyCount++];
+			copy.transform(local, 0, 0, 1, 0);
+			outlines[i] = null;
+			geometries[i] = copy;
+		}
+	}
+
+	/**
+	 * Sets the values shown around the screen. bossHealth is -1 when there is
+	 * no boss to show.
+	 */
+	void setStatus(int lives, long score, int level, long bestScore, int bossHealth, String legend) {
+		this.lives = lives;
+		this.score = score;
+		this.level = level;
+		this.bestScore = bestScore;
+		this.bossHealth = bossHealth;
+		this.legend = legend;
+	}
+
+	/**
+	 * Returns the number of participants in the frame.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the x coordinate of participant i at the given fraction (0 to 1)
+	 * of the way from its previous position to its latest one. Jumps of more
+	 * than half the screen, such as wrapping around an edge, are not
+	 * interpolated.
+	 */
+	public double getX(int i, double alpha) {
+		double dx = x[i] - prevX[i];
+		return (Math.abs(dx) < SIZE / 2) ? x[i] + (alpha - 1) * dx : x[i];
+	}
+
+	/**
+	 * Returns the y coordinate of participant i, interpolated as by getX.
+	 */
+	public double getY(int i, double alpha) {
+		double dy = y[i] - prevY[i];
+		return (Math.abs(dy) < SIZE / 2) ? y[i] + (alpha - 1) * dy : y[i];
+	}
+
+	/**
+	 * Returns the rotation of participant i.
+	 */
+	public double getRotation(int i) {
+		return rotation[i];
+	}
+
+	/**
+	 * Returns the outline of participant i if it is shared, or null if not.
+	 */
+	public Shape getSharedOutline(int i) {
+		return outlines[i];
+	}
+
+	/**
+	 * Returns the color of participant i.
+	 */
+	public Color getColor(int i) {
+		return colors[i];
+	}
+
+	/**
+	 * Places the outline of participant i, interpolated as by getX, into
+	 * border and returns it.
+	 */
+	public OutlineGeometry place(int i, double alpha, OutlineGeometry border) {
+		border.transform(geometries[i], getX(i, alpha), getY(i, alpha), cos[i], sin[i]);
+		return border;
+	}
+
+	/**
+	 * Returns the number of lives.
+	 */
+	public int getLives() {
+		return lives;
+	}
+
+	/**
+	 * Returns the score.
+	 */
+	public long getScore() {
+		return score;
+	}
+
+	/**
+	 * Returns the level.
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Returns the best score so far.
+	 */
+	public long getBestScore() {
+		return bestScore;
+	}
+
+	/**
+	 * Returns the health of the boss, or -1 if there is no boss to show.
+	 */
+	public int getBossHealth() {
+		return bossHealth;
+	}
+
+	/**
+	 * Returns the legend shown across the screen.
+	 */
+	public String getLegend() {
+		return legend;
+	}
+
+	/**
+	 * Makes room for twice as many participants.
+	 */
+	private void grow() {
+		int capacity = 2 * x.length;
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		prevX = Arrays.copyOf(prevX, capacity);
+		prevY = Arrays.copyOf(prevY, capacity);
+		cos = Arrays.copyOf(cos, capacity);
+		sin = Arrays.copyOf(sin, capacity);
+		rotation = Arrays.copyOf(rotation, capacity);
+		outlines = Arrays.copyOf(outlines, capacity);
+		geometries = Arrays.copyOf(geometries, capacity);
+		colors = Arrays.copyOf(colors, capacity);
+	}
+}
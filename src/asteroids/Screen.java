@@ -1,27 +1,87 @@
 package asteroids;
 
 import java.awt.*;
-import java.util.Iterator;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Arrays;
 import javax.swing.*;
 import static asteroids.Constants.*;
 
 /**
- * The area of the display in which the game takes place.
+ * The area of the display in which the game takes place. It is painted from
+ * the RenderFrame most recently published by the controller, so painting
+ * never touches the participants themselves.
+ *
+ * The screen is painted in three layers. The background is kept in a
+ * VolatileImage, which can live in video memory, and copied onto each frame.
+ * The participants are drawn over it, either by stroking their outlines one
+ * at a time, by stroking one path per color holding every outline of that
+ * color, or by copying ready-made images of them from a SpriteCache. The
+ * legend is drawn into an image of its own only when it changes, and copied
+ * onto each frame on top.
  */
 @SuppressWarnings("serial")
 public class Screen extends JPanel {
-	// Legend that is displayed across the screen
-	private String legend;
+	/**
+	 * The ways in which participants can be drawn
+	 */
+	public enum RenderMode {
+		/** Stroking the outline of each participant with antialiasing */
+		STROKE,
+		/** Stroking one path per color that holds every outline in that color */
+		BATCHED,
+		/** Copying an image of each outline, stroking only those not shared */
+		SPRITES
+	}
 
 	// Game controller
 	private Controller controller;
 
+	// How participants are drawn
+	private RenderMode mode;
+
+	// Images of the participants' outlines
+	private final SpriteCache sprites;
+
+	// Reused to place each outline on the screen, and to stroke it
+	private final OutlineGeometry border;
+	private final Path2D.Double path;
+
+	// The path being built for each color in use, and how many colors are in
+	// use. Kept from frame to frame so the paths keep their room.
+	private Color[] batchColors;
+	private Path2D.Double[] batchPaths;
+	private int batchCount;
+
+	// The background layer, or null if it has not been made yet or the
+	// screen cannot make one
+	private VolatileImage background;
+
+	// The legend layer, or null if the legend is empty, the legend it holds,
+	// and where its top left corner goes
+	private BufferedImage legendImage;
+	private String legendShown;
+	private int legendX, legendY;
+
+	// Nanoseconds taken to paint the last frame, and a running mean over
+	// recent frames
+	private long paintTime;
+	private double meanPaintTime;
+
 	/**
 	 * Creates an empty screen
 	 */
 	public Screen(Controller controller) {
 		this.controller = controller;
-		legend = "";
+		legendShown = "";
+		mode = RenderMode.valueOf(System.getProperty("asteroids.render", RenderMode.SPRITES.name()));
+		sprites = new SpriteCache();
+		border = new OutlineGeometry();
+		path = new Path2D.Double();
+		batchColors = new Color[4];
+		batchPaths = new Path2D.Double[4];
+		batchCount = 0;
 		setPreferredSize(new Dimension(SIZE, SIZE));
 		setMinimumSize(new Dimension(SIZE, SIZE));
 		setBackground(Color.black);
@@ -31,10 +91,32 @@ public class Screen extends JPanel {
 	}
 
 	/**
-	 * Set the legend
+	 * Sets how participants are drawn. The default can be chosen with the
+	 * asteroids.render system property.
+	 */
+	public void setRenderMode(RenderMode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * Returns how participants are drawn.
 	 */
-	public void setLegend(String legend) {
-		this.legend = legend;
+	public RenderMode getRenderMode() {
+		return mode;
+	}
+
+	/**
+	 * Returns the nanoseconds taken to paint the last frame.
+	 */
+	public long getPaintTime() {
+		return paintTime;
+	}
+
+	/**
+	 * Returns the mean nanoseconds taken to paint recent frames.
+	 */
+	public double getMeanPaintTime() {
+		return meanPaintTime;
 	}
 
 	/**
@@ -42,17 +124,155 @@ public class Screen extends JPanel {
 	 */
 	@Override
 	public void paintComponent(Graphics g) {
-		// Do the default painting
-		super.paintComponent(g);
+		long start = System.nanoTime();
+		Graphics2D g2 = (Graphics2D) g;
+		paintBackground(g2);
 
-		// Draw each participant in its proper place
-		Iterator<Participant> iter = controller.getParticipants();
-		while (iter.hasNext()) {
-			iter.next().draw((Graphics2D) g);
+		// Draw each participant in its proper place, part of the way along
+		// its last move if the next step is not yet due
+		g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		RenderFrame frame = controller.getFrame();
+		double alpha = controller.getInterpolation();
+		int count = frame.size();
+		if (mode == RenderMode.BATCHED) {
+			for (int i = 0; i < count; i++) {
+				frame.place(i, alpha, border).appendTo(batchFor(frame.getColor(i)), 0, 0);
+			}
+			strokeBatches(g2);
+		} else {
+			boolean useSprites = (mode == RenderMode.SPRITES);
+			for (int i = 0; i < count; i++) {
+				Shape outline = frame.getSharedOutline(i);
+				if (useSprites && outline != null) {
+					sprites.draw(g2, outline, frame.getColor(i), frame.getX(i, alpha), frame.getY(i, alpha),
+							frame.getRotation(i));
+				} else {
+					path.reset();
+					frame.place(i, alpha, border).appendTo(path, 0, 0);
+					g2.setColor(frame.getColor(i));
+					g2.draw(path);
+				}
+			}
 		}
 
 		// Draw the legend across the middle of the panel
-		int size = g.getFontMetrics().stringWidth(legend);
-		g.drawString(legend, (SIZE - size) / 2, SIZE / 2);
+		paintLegend(g2, frame.getLegend());
+
+		paintTime = System.nanoTime() - start;
+		meanPaintTime += (paintTime - meanPaintTime) / 32;
+		controller.frameRendered();
+	}
+
+	/**
+	 * Returns the path collecting the outlines to be drawn in color this
+	 * frame. There are only a handful of colors, so they are searched in
+	 * turn.
+	 */
+	private Path2D.Double batchFor(Color color) {
+		for (int i = 0; i < batchCount; i++) {
+			if (batchColors[i] == color || batchColors[i].equals(color)) {
+				return batchPaths[i];
+			}
+		}
+		if (batchCount == batchColors.length) {
+			batchColors = Arrays.copyOf(batchColors, batchCount * 2);
+			batchPaths = Arrays.copyOf(batchPaths, batchCount * 2);
+		}
+		if (batchPaths[batchCount] == null) {
+			batchPaths[batchCount] = new Path2D.Double(Path2D.WIND_NON_ZERO, 1024);
+		}
+		batchColors[batchCount] = color;
+		return batchPaths[batchCount++];
+	}
+
+	/**
+	 * Strokes the path for each color in use this frame and empties them for
+	 * the next.
+	 */
+	private void strokeBatches(Graphics2D g) {
+		for (int i = 0; i < batchCount; i++) {
+			g.setColor(batchColors[i]);
+			g.draw(batchPaths[i]);
+			batchPaths[i].reset();
+			batchColors[i] = null;
+		}
+		batchCount = 0;
+	}
+
+	/**
+	 * Copies the background layer onto g, making it first if need be. Falls
+	 * back to filling in the background when the screen is not on a display,
+	 * as when painting into an image offscreen.
+	 */
+	private void paintBackground(Graphics2D g) {
+		GraphicsConfiguration config = getGraphicsConfiguration();
+		if (config == null) {
+			g.setColor(getBackground());
+			g.fillRect(0, 0, getWidth(), getHeight());
+			return;
+		}
+
+		// The contents of a VolatileImage can be lost at any time, so they
+		// are drawn again until they survive being copied
+		do {
+			if (background == null || background.getWidth() != getWidth() || background.getHeight() != getHeight()) {
+				makeBackground(config);
+			}
+			int status = background.validate(config);
+			if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+				makeBackground(config);
+			} else if (status == VolatileImage.IMAGE_RESTORED) {
+				drawBackground();
+			}
+			g.drawImage(background, 0, 0, null);
+		} while (background.contentsLost());
+	}
+
+	/**
+	 * Makes a new background layer suited to config and draws it.
+	 */
+	private void makeBackground(GraphicsConfiguration config) {
+		if (background != null) {
+			background.flush();
+		}
+		background = config.createCompatibleVolatileImage(Math.max(1, getWidth()), Math.max(1, getHeight()));
+		sprites.clear();
+		drawBackground();
+	}
+
+	/**
+	 * Draws the background into the background layer.
+	 */
+	private void drawBackground() {
+		Graphics2D g = background.createGraphics();
+		g.setColor(getBackground());
+		g.fillRect(0, 0, background.getWidth(), background.getHeight());
+		g.dispose();
+	}
+
+	/**
+	 * Copies the legend layer onto g, drawing legend into it first if it has
+	 * changed.
+	 */
+	private void paintLegend(Graphics2D g, String legend) {
+		if (!legend.equals(legendShown)) {
+			legendShown = legend;
+			legendImage = null;
+			if (!legend.isEmpty()) {
+				FontMetrics metrics = getFontMetrics(getFont());
+				legendImage = new BufferedImage(Math.max(1, metrics.stringWidth(legend)), metrics.getHeight(),
+						BufferedImage.TYPE_INT_ARGB_PRE);
+				Graphics2D lg = legendImage.createGraphics();
+				lg.setFont(getFont());
+				lg.setColor(getForeground());
+				lg.drawString(legend, 0, metrics.getAscent());
+				lg.dispose();
+				legendX = (SIZE - metrics.stringWidth(legend)) / 2;
+				legendY = SIZE / 2 - metrics.getAscent();
+			}
+		}
+		if (legendImage != null) {
+			g.drawImage(legendImage, legendX, legendY, null);
+		}
 	}
 }
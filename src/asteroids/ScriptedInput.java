@@ -0,0 +1,138 @@
+package asteroids;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Input that presses and releases keys at fixed ticks of the game, for
+ * driving a game that is run without a keyboard. Keys are identified by the
+ * KeyEvent.VK_ constants, just as they are when they come from the keyboard.
+ */
+public class ScriptedInput implements InputSource {
+	// The key events in the order they were added
+	private ArrayList<Event> events;
+
+	// True once the events have been put in order of tick
+	private boolean sorted;
+
+	// Index of the next event to be supplied
+	private int next;
+
+	/**
+	 * Creates a script with no key events.
+	 */
+	public ScriptedInput() {
+		events = new ArrayList<Event>();
+		sorted = true;
+		next = 0;
+	}
+
+	/**
+	 * Creates a script that plays the game for the given number of ticks. The
+	 * ship turns continually, fires every few ticks and now and then thrusts
+	 * forwards or turns the other way. The same seed gives the same script.
+	 */
+	public static ScriptedInput autopilot(long ticks, long seed) {
+		Random random = new Random(seed);
+		ScriptedInput script = new ScriptedInput();
+		int turn = KeyEvent.VK_LEFT;
+		script.press(1, turn);
+		for (long tick = 1; tick < ticks; tick += 4 + random.nextInt(8)) {
+			script.tap(tick, KeyEvent.VK_SPACE);
+			if (random.nextInt(8) == 0) {
+				script.press(tick, KeyEvent.VK_UP);
+				script.release(tick + 5 + random.nextInt(20), KeyEvent.VK_UP);
+			}
+			if (random.nextInt(16) == 0) {
+				script.release(tick, turn);
+				turn = (turn == KeyEvent.VK_LEFT) ? KeyEvent.VK_RIGHT : KeyEvent.VK_LEFT;
+				script.press(tick, turn);
+			}
+		}
+		script.release(ticks, turn);
+		return script;
+	}
+
+	/**
+	 * Presses the key with the given code just before the given tick.
+	 */
+	public void press(long tick, int keyCode) {
+		add(new Event(tick, keyCode, true));
+	}
+
+	/**
+	 * Releases the key with the given code just before the given tick.
+	 */
+	public void release(long tick, int keyCode) {
+		add(new Event(tick, keyCode, false));
+	}
+
+	/**
+	 * Presses the key with the given code just before the given tick and
+	 * releases it just before the next one.
+	 */
+	public void tap(long tick, int keyCode) {
+		press(tick, keyCode);
+		release(tick + 1, keyCode);
+	}
+
+	/**
+	 * Adds an event to the script.
+	 */
+	private void add(Event event) {
+		if (!events.isEmpty() && events.get(events.size() - 1).tick > event.tick) {
+			sorted = false;
+		}
+		events.add(event);
+	}
+
+	/**
+	 * Supplies the events that are due at or before tick, in the order they
+	 * were added for each tick.
+	 */
+	@Override
+	public boolean supply(long tick, Controller controller) {
+		if (!sorted) {
+			// The sort is stable, so events at the same tick keep their order
+			Collections.sort(events.subList(next, events.size()), new Comparator<Event>() {
+				@Override
+				public int compare(Event e1, Event e2) {
+					return Long.compare(e1.tick, e2.tick);
+				}
+			});
+			sorted = true;
+		}
+		while (next < events.size() && events.get(next).tick <= tick) {
+			Event event = events.get(next++);
+			if (event.press) {
+				controller.pressKey(event.keyCode);
+			} else {
+				controller.releaseKey(event.keyCode);
+			}
+		}
+		return next < events.size();
+	}
+
+	/**
+	 * A key being pressed or released at a particular tick
+	 */
+	private static class Event {
+		// The tick before which the event happens
+		final long tick;
+
+		// The key involved
+		final int keyCode;
+
+		// True if the key is pressed, false if it is released
+		final boolean press;
+
+		Event(long tick, int keyCode, boolean press) {
+			this.tick = tick;
+			this.keyCode = keyCode;
+			this.press = press;
+		}
+	}
+}
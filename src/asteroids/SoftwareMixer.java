@@ -0,0 +1,275 @@
+package asteroids;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Plays the sounds of the game on a thread of its own. The game thread never
+ * touches the audio system: play, loop and stop just put a command on a
+ * CommandQueue and return at once. The mixer thread takes the commands off
+ * the queue, adds up the samples of every voice that is playing and writes
+ * the sum to an AudioOutput, a block at a time. Writing to the output is what
+ * paces the thread.
+ *
+ * There are VOICES voices. A sound that is played when every voice is busy
+ * takes over the voice that started longest ago. If the queue fills up,
+ * which only happens if the mixer thread stalls, commands are dropped rather
+ * than making the game wait.
+ */
+public class SoftwareMixer implements Sounds, Runnable {
+	// Number of voices, and so the most sounds that can play at once
+	private final static int VOICES = 8;
+
+	// Number of samples mixed at a time
+	private final static int BLOCK = 256;
+
+	// Number of commands that may be waiting
+	private final static int QUEUE_SIZE = 256;
+
+	// Every sound, indexed by ordinal
+	private final static Sound[] SOUNDS = Sound.values();
+
+	// Commands, packed into a long as operation << 40 | sound << 32 | count
+	private final static long PLAY = 1, LOOP = 2, STOP = 3;
+
+	// The samples being played
+	private final AudioBank bank;
+
+	// Where the mixed samples go
+	private final AudioOutput output;
+
+	// Commands from the game thread
+	private final CommandQueue commands;
+
+	// Number of voices playing each sound, indexed by ordinal. Written by the
+	// mixer thread so that the game thread can ask what is playing.
+	private final AtomicIntegerArray playing;
+
+	// For each voice, the sound (null if the voice is idle), the index of the
+	// next sample, the number of repeats left (-1 for ever) and when it was
+	// started. Used only by the mixer thread.
+	private final Sound[] voiceSound;
+	private final int[] voicePosition;
+	private final int[] voiceRepeats;
+	private final long[] voiceStarted;
+
+	// Counts the sounds started, to tell which voice has played longest
+	private long started;
+
+	// The sum of the voices, and the same as bytes for the output
+	private final int[] sum;
+	private final byte[] buffer;
+
+	// The thread doing the mixing, or null if it is not running
+	private volatile Thread thread;
+
+	/**
+	 * Creates a mixer that plays the sounds in bank to output. Nothing is
+	 * heard until the mixer is started.
+	 */
+	public SoftwareMixer(AudioBank bank, AudioOutput output) {
+		this.bank = bank;
+		this.output = output;
+		commands = new CommandQueue(QUEUE_SIZE);
+		playing = new AtomicIntegerArray(SOUNDS.length);
+		voiceSound = new Sound[VOICES];
+		voicePosition = new int[VOICES];
+		voiceRepeats = new int[VOICES];
+		voiceStarted = new long[VOICES];
+		sum = new int[BLOCK];
+		buffer = new byte[BLOCK * 2];
+	}
+
+	/**
+	 * Returns the number of bytes that the mixer writes to its output at a
+	 * time.
+	 */
+	public static int getBlockBytes() {
+		return BLOCK * 2;
+	}
+
+	/**
+	 * Starts the mixer thread if it is not already running.
+	 */
+	public synchronized void start() {
+		if (thread == null) {
+			thread = new Thread(this, "Sound mixer");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MAX_PRIORITY);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Stops the mixer thread and closes the output.
+	 */
+	public synchronized void close() {
+		Thread t = thread;
+		thread = null;
+		if (t != null) {
+			try {
+				t.join(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		output.close();
+	}
+
+	@Override
+	public void play(Sound sound) {
+		commands.offer(PLAY << 40 | (long) sound.ordinal() << 32);
+	}
+
+	@Override
+	public void loop(Sound sound, int count) {
+		// Clip.LOOP_CONTINUOUSLY (-1) and other negative counts mean for ever
+		commands.offer(LOOP << 40 | (long) sound.ordinal() << 32 | (count < 0 ? 0xFFFFFFFFL : count));
+	}
+
+	@Override
+	public void stop(Sound sound) {
+		commands.offer(STOP << 40 | (long) sound.ordinal() << 32);
+	}
+
+	/**
+	 * Reports whether sound is playing. The answer lags behind the commands
+	 * by up to a block of samples.
+	 */
+	@Override
+	public boolean isPlaying(Sound sound) {
+		return playing.get(sound.ordinal()) > 0;
+	}
+
+	/**
+	 * Mixes and writes blocks until the mixer is closed.
+	 */
+	@Override
+	public void run() {
+		while (thread == Thread.currentThread()) {
+			mix();
+			output.write(buffer, buffer.length);
+		}
+	}
+
+	/**
+	 * Carries out the waiting commands and mixes the next block of samples
+	 * into the buffer. This is done by the mixer thread, or by a test that
+	 * has not started the thread.
+	 */
+	void mix() {
+		long command;
+		while ((command = commands.poll()) >= 0) {
+			perform(command);
+		}
+
+		Arrays.fill(sum, 0);
+		for (int v = 0; v < VOICES; v++) {
+			if (voiceSound[v] != null) {
+				mixVoice(v);
+			}
+		}
+
+		for (int i = 0; i < BLOCK; i++) {
+			int s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sum[i]));
+			buffer[2 * i] = (byte) s;
+			buffer[2 * i + 1] = (byte) (s >> 8);
+		}
+	}
+
+	/**
+	 * Returns the block of samples most recently mixed.
+	 */
+	byte[] getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Adds a block of the samples of voice v to the sum, repeating or
+	 * stopping the voice when it comes to the end of its sound.
+	 */
+	private void mixVoice(int v) {
+		short[] samples = bank.getSamples(voiceSound[v]);
+		int position = voicePosition[v];
+		int i = 0;
+		while (i < BLOCK) {
+			if (position >= samples.length) {
+				if (voiceRepeats[v] == 0 || samples.length == 0) {
+					release(v);
+					return;
+				}
+				if (voiceRepeats[v] > 0) {
+					voiceRepeats[v]--;
+				}
+				position = 0;
+			}
+			int n = Math.min(BLOCK - i, samples.length - position);
+			for (int k = 0; k < n; k++) {
+				sum[i + k] += samples[position + k];
+			}
+			i += n;
+			position += n;
+		}
+		voicePosition[v] = position;
+	}
+
+	/**
+	 * Carries out one command.
+	 */
+	private void perform(long command) {
+		int op = (int) (command >>> 40);
+		Sound sound = SOUNDS[(int) (command >>> 32) & 0xFF];
+		int count = (int) command;
+		if (op == PLAY) {
+			start(sound, 0);
+		} else if (op == LOOP) {
+			// Carry on with a voice that is already playing the sound
+			for (int v = 0; v < VOICES; v++) {
+				if (voiceSound[v] == sound) {
+					voiceRepeats[v] = count;
+					return;
+				}
+			}
+			start(sound, count);
+		} else if (op == STOP) {
+			for (int v = 0; v < VOICES; v++) {
+				if (voiceSound[v] == sound) {
+					release(v);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Starts sound from the beginning on an idle voice, or on the voice that
+	 * started longest ago if none is idle.
+	 */
+	private void start(Sound sound, int repeats) {
+		int chosen = 0;
+		for (int v = 0; v < VOICES; v++) {
+			if (voiceSound[v] == null) {
+				chosen = v;
+				break;
+			}
+			if (voiceStarted[v] < voiceStarted[chosen]) {
+				chosen = v;
+			}
+		}
+		if (voiceSound[chosen] != null) {
+			release(chosen);
+		}
+		voiceSound[chosen] = sound;
+		voicePosition[chosen] = 0;
+		voiceRepeats[chosen] = repeats;
+		voiceStarted[chosen] = ++started;
+		playing.incrementAndGet(sound.ordinal());
+	}
+
+	/**
+	 * Makes voice v idle.
+	 */
+	private void release(int v) {
+		playing.decrementAndGet(voiceSound[v].ordinal());
+		voiceSound[v] = null;
+	}
+}
@@ -0,0 +1,32 @@
+package asteroids;
+
+/**
+ * The sounds of the game. Each names a sound file in the sounds package.
+ */
+public enum Sound {
+	FIRE("fire.wav"),
+	THRUST("thrust.wav"),
+	BANG_SHIP("bangShip.wav"),
+	BANG_ALIEN_SHIP("bangAlienShip.wav"),
+	BANG_LARGE("bangLarge.wav"),
+	BANG_MEDIUM("bangMedium.wav"),
+	BANG_SMALL("bangSmall.wav"),
+	SAUCER_BIG("saucerBig.wav"),
+	SAUCER_SMALL("saucerSmall.wav"),
+	BEAT1("beat1.wav"),
+	BEAT2("beat2.wav");
+
+	// The resource holding the sound
+	private final String file;
+
+	private Sound(String file) {
+		this.file = "/sounds/" + file;
+	}
+
+	/**
+	 * Returns the name of the resource holding the sound.
+	 */
+	public String getFile() {
+		return file;
+	}
+}
@@ -1,10 +1,50 @@
 package asteroids;
 
-import javax.sound.sampled.Clip;
-
+/**
+ * Plays the sounds of the game. Participants get the Sounds to use from
+ * Audio.getSounds, and never deal with sound files or audio lines themselves.
+ */
 public interface Sounds {
 	/**
-	 * Creates an audio clip from a sound file.
+	 * Sounds that are never heard
+	 */
+	public final static Sounds NONE = new Sounds() {
+		@Override
+		public void play(Sound sound) {
+		}
+
+		@Override
+		public void loop(Sound sound, int count) {
+		}
+
+		@Override
+		public void stop(Sound sound) {
+		}
+
+		@Override
+		public boolean isPlaying(Sound sound) {
+			return false;
+		}
+	};
+
+	/**
+	 * Plays sound once from the beginning.
+	 */
+	public void play(Sound sound);
+
+	/**
+	 * Plays sound and then repeats it count more times. If sound is already
+	 * playing, it carries on from where it is and repeats count more times.
+	 */
+	public void loop(Sound sound, int count);
+
+	/**
+	 * Stops sound wherever it is playing.
+	 */
+	public void stop(Sound sound);
+
+	/**
+	 * Reports whether sound is playing.
 	 */
-	public Clip createClip(String soundFile);
+	public boolean isPlaying(Sound sound);
 }
@@ -0,0 +1,148 @@
+package asteroids;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+
+/**
+ * Ready-made images of the outlines of participants, so that the screen can
+ * copy each participant onto the frame instead of stroking its outline with
+ * antialiasing every time it is drawn.
+ *
+ * An outline is drawn at one of ROTATIONS rotations, evenly spread around the
+ * circle, and its image is placed at the nearest whole pixel, so a sprite can
+ * be off from the stroked outline by up to half a pixel and half a step of
+ * rotation. Images are made the first time each outline is drawn in each
+ * color at each rotation and kept from then on.
+ *
+ * Only outlines flattened with OutlineGeometry.share should be drawn this
+ * way: there are few of them and each is used by many participants. Any
+ * other outline, such as that of the boss or a shield, could take any shape,
+ * so those participants are better stroked.
+ */
+public class SpriteCache {
+	/**
+	 * Number of rotations at which each outline is drawn
+	 */
+	public final static int ROTATIONS = 64;
+
+	// Pixels left clear around each outline for the antialiased edges
+	private final static int MARGIN = 2;
+
+	// The images of each outline that has been drawn, one entry per color
+	private final IdentityHashMap<Shape, Entry> entries;
+
+	/**
+	 * Creates an empty cache.
+	 */
+	public SpriteCache() {
+		entries = new IdentityHashMap<Shape, Entry>();
+	}
+
+	/**
+	 * Draws outline in color onto g, centered at (x, y) and rotated by the
+	 * given angle, by copying its image at the nearest rotation.
+	 */
+	public void draw(Graphics2D g, Shape outline, Color color, double x, double y, double angle) {
+		Entry entry = find(outline, color);
+
+		// Pick the nearest rotation, folded into the range 0 to ROTATIONS - 1
+		int rotation = (int) Math.floor(angle * ROTATIONS / (2 * Math.PI) + 0.5) % ROTATIONS;
+		if (rotation < 0) {
+			rotation += ROTATIONS;
+		}
+		Sprite sprite = entry.sprites[rotation];
+		if (sprite == null) {
+			sprite = new Sprite(g.getDeviceConfiguration(), outline, color, rotation);
+			entry.sprites[rotation] = sprite;
+		}
+		int left = (int) Math.floor(x + 0.5) - sprite.originX;
+		int top = (int) Math.floor(y + 0.5) - sprite.originY;
+		g.drawImage(sprite.image, left, top, null);
+	}
+
+	/**
+	 * Forgets every image made so far, such as when the screen moves to a
+	 * display of a different kind.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the entry holding the images of outline in color, making it if
+	 * need be.
+	 */
+	private Entry find(Shape outline, Color color) {
+		Entry first = entries.get(outline);
+		if (first == null) {
+			first = new Entry(color, null);
+			entries.put(outline, first);
+		}
+		for (Entry e = first; e != null; e = e.next) {
+			if (e.color.equals(color)) {
+				return e;
+			}
+		}
+		Entry entry = new Entry(color, first.next);
+		first.next = entry;
+		return entry;
+	}
+
+	/**
+	 * The images of one outline in one color, and a link to the entry for the
+	 * next color. Participants use only one or two colors each, so a short
+	 * list serves better than a second table.
+	 */
+	private static class Entry {
+		// The color, the image at each rotation (or null if not yet made),
+		// and the entry for the next color
+		final Color color;
+		final Sprite[] sprites;
+		Entry next;
+
+		Entry(Color color, Entry next) {
+			this.color = color;
+			this.sprites = new Sprite[ROTATIONS];
+			this.next = next;
+		}
+	}
+
+	/**
+	 * An image of an outline at one rotation, and the pixel in the image at
+	 * which the center of the outline falls.
+	 */
+	private static class Sprite {
+		final Image image;
+		final int originX, originY;
+
+		/**
+		 * Draws outline in color at the given step of rotation into an image
+		 * suited to config.
+		 */
+		Sprite(GraphicsConfiguration config, Shape outline, Color color, int rotation) {
+			AffineTransform rotate = AffineTransform.getRotateInstance(rotation * 2 * Math.PI / ROTATIONS);
+			Rectangle2D bounds = rotate.createTransformedShape(outline).getBounds2D();
+			int left = (int) Math.floor(bounds.getMinX()) - MARGIN;
+			int top = (int) Math.floor(bounds.getMinY()) - MARGIN;
+			int width = (int) Math.ceil(bounds.getMaxX()) + MARGIN - left;
+			int height = (int) Math.ceil(bounds.getMaxY()) + MARGIN - top;
+			originX = -left;
+			originY = -top;
+
+			BufferedImage image = (config == null)
+					? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE)
+					: config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+			Graphics2D g = image.createGraphics();
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g.setColor(color);
+			g.translate(originX, originY);
+			g.transform(rotate);
+			g.draw(outline);
+			g.dispose();
+			this.image = image;
+		}
+	}
+}
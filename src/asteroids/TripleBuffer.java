@@ -0,0 +1,78 @@
+package asteroids;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Passes a stream of values from exactly one producer thread to exactly one
+ * consumer thread through three buffers, so that neither ever waits for the
+ * other. The producer fills its back buffer and publishes it, getting the
+ * buffer in the middle back in exchange. The consumer takes the middle buffer
+ * whenever it has been published since the consumer last looked, and otherwise
+ * keeps reading the one it has. Values the consumer was too slow to see are
+ * simply overwritten.
+ *
+ * The index of the middle buffer and a bit marking it as fresh are swapped in
+ * and out of a single AtomicInteger, which also makes everything written to a
+ * buffer before it was published visible to the consumer that takes it.
+ */
+public class TripleBuffer<T> {
+	// Set in middle when the buffer there was published after the consumer
+	// last took one
+	private final static int FRESH = 4;
+
+	// Mask that takes the index out of middle
+	private final static int INDEX = 3;
+
+	// The three buffers
+	private final Object[] buffers;
+
+	// Index of the buffer being filled, used only by the producer
+	private int back;
+
+	// Index of the buffer being read, used only by the consumer
+	private int front;
+
+	// Index of the buffer in between, and whether it is fresh
+	private final AtomicInteger middle;
+
+	/**
+	 * Creates a triple buffer over the three given buffers. The consumer starts
+	 * out reading first and the producer starts out filling second.
+	 */
+	public TripleBuffer(T first, T second, T third) {
+		buffers = new Object[] { first, second, third };
+		front = 0;
+		back = 1;
+		middle = new AtomicInteger(2);
+	}
+
+	/**
+	 * Returns the buffer the producer is to fill next. Called only by the
+	 * producer.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getBack() {
+		return (T) buffers[back];
+	}
+
+	/**
+	 * Publishes the back buffer for the consumer and takes another to fill
+	 * next. Called only by the producer.
+	 */
+	public void publish() {
+		back = middle.getAndSet(back | FRESH) & INDEX;
+	}
+
+	/**
+	 * Returns the buffer most recently published, or the one returned last time
+	 * if nothing has been published since. Called only by the consumer, which
+	 * may read the buffer returned until it calls this again.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getLatest() {
+		if ((middle.get() & FRESH) != 0) {
+			front = middle.getAndSet(front) & INDEX;
+		}
+		return (T) buffers[front];
+	}
+}
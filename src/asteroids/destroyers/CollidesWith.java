@@ -0,0 +1,24 @@
+package asteroids.destroyers;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares the classes of Participant that a Participant class reacts to when
+ * they collide, beyond what the destroyer interfaces already say. For
+ * example, a Shield reacts to a Ship even though Ship is not a destroyer of
+ * shields.
+ * 
+ * Collisions between two participants that do not react to each other are
+ * never checked, so a class whose collidedWith method does anything must
+ * either be the target of a destroyer interface or carry this annotation.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CollidesWith {
+	/**
+	 * Classes or interfaces of the participants that this class reacts to
+	 */
+	Class<?>[] value();
+}
@@ -14,5 +14,10 @@
  * Each participant class should implement as many of the destroyer interfaces as is
  * appropriate.  The code that controls the progress of a game uses this information
  * to determine what to do when two participants collide.
+ * 
+ * A class that reacts to collisions with participants that are not its
+ * destroyers declares them with the {@link asteroids.destroyers.CollidesWith}
+ * annotation. Pairs of participants that do not react to each other are never
+ * tested for collisions.
  */
 package asteroids.destroyers;
\ No newline at end of file
@@ -1,25 +1,17 @@
 package asteroids.participants;
 
-import static asteroids.Constants.RANDOM;
-
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.Shape;
-import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
-import java.io.BufferedInputStream;
-import java.io.IOException;
-
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
 
+import asteroids.Audio;
 import asteroids.Constants;
 import asteroids.Controller;
+import asteroids.GameSnapshot;
 import asteroids.Participant;
 import asteroids.ParticipantCountdownTimer;
-import asteroids.Sounds;
+import asteroids.RandomStream;
+import asteroids.Sound;
 import asteroids.destroyers.AlienDestroyer;
 import asteroids.destroyers.AsteroidDestroyer;
 import asteroids.destroyers.ShipDestroyer;
@@ -30,7 +22,7 @@ import asteroids.destroyers.ShipDestroyer;
  * 
  * @author Gabriel Kerr, and Jasper Slaff
  */
-public class Alien extends Participant implements AsteroidDestroyer, ShipDestroyer, Sounds {
+public class Alien extends Participant implements AsteroidDestroyer, ShipDestroyer {
 
 	// The outline of the alien ship
 	private Shape outline;
@@ -44,12 +36,6 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 	// decides if it is moving left or right
 	private boolean left;
 
-	// Alien sound clips
-	private Clip fireClip;
-	private Clip crashClip;
-	private Clip bigAlienClip;
-	private Clip smallAlienClip;
-
 	// Whether or not it is time for the alien to move
 	private boolean timeToMove = true;
 
@@ -65,7 +51,7 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 		this.controller = controller;
 		setPosition(x, y);
 		// decide if it is going left or right
-		if (RANDOM.nextInt(2) == 1) {
+		if (controller.getRandom(RandomStream.ALIENS).nextInt(2) == 1) {
 			left = false;
 		} else {
 			left = true;
@@ -82,50 +68,45 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 		}
 		this.size = size;
 
-		if (size == 1) {
-			// Create the shape of the alien
-			Path2D.Double poly = new Path2D.Double();
-			poly.moveTo(0, 0);
-			poly.lineTo(15, 0);
-			poly.lineTo(20, -5);
-			poly.lineTo(-5, -5);
-			poly.closePath();
-			poly.moveTo(20, -5);
-			poly.lineTo(15, -10);
-			poly.lineTo(0, -10);
-			poly.lineTo(-5, -5);
-			poly.moveTo(15, -10);
-			poly.lineTo(12, -13);
-			poly.lineTo(3, -13);
-			poly.lineTo(0, -10);
-			outline = poly;
-		} else if (size == 2) {
-			Path2D.Double poly = new Path2D.Double();
-			poly.moveTo(0, 0);
-			poly.lineTo(30, 0);
-			poly.lineTo(40, -10);
-			poly.lineTo(-10, -10);
-			poly.closePath();
-			poly.moveTo(40, -10);
-			poly.lineTo(30, -20);
-			poly.lineTo(0, -20);
-			poly.lineTo(-10, -10);
-			poly.moveTo(30, -20);
-			poly.lineTo(24, -26);
-			poly.lineTo(6, -26);
-			poly.lineTo(0, -20);
-			outline = poly;
-		}
-
-		// initialize sounds
-		fireClip = createClip("/sounds/fire.wav");
-		crashClip = createClip("/sounds/bangAlienShip.wav");
-		bigAlienClip = createClip("/sounds/saucerBig.wav");
-		smallAlienClip = createClip("/sounds/saucerSmall.wav");
+		// Use the shared shape of the alien
+		outline = Outlines.alien(size);
 
 		// set initial timer for when alien moves and shoots
-		move = new ParticipantCountdownTimer(this, "move", Constants.ALIEN_DELAY + 750);
-		fire = new ParticipantCountdownTimer(this, "fire", Constants.ALIEN_DELAY + 750);
+		move = new ParticipantCountdownTimer(this, "move", Constants.ALIEN_DELAY + 750, controller);
+		fire = new ParticipantCountdownTimer(this, "fire", Constants.ALIEN_DELAY + 750, controller);
+	}
+
+	/**
+	 * Creates a blank alien to be restored from a snapshot.
+	 */
+	Alien() {
+	}
+
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putInt(size);
+		snapshot.putBoolean(left);
+		snapshot.putBoolean(timeToMove);
+		snapshot.putBoolean(timeToFire);
+		snapshot.putTimer(move);
+		snapshot.putTimer(fire);
+	}
+
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		size = snapshot.getInt();
+		if (size < 1 || size > 2) {
+			throw new IllegalArgumentException("Invalid alien in game snapshot");
+		}
+		left = snapshot.getBoolean();
+		timeToMove = snapshot.getBoolean();
+		timeToFire = snapshot.getBoolean();
+		move = snapshot.getTimer();
+		fire = snapshot.getTimer();
+		controller = snapshot.getController();
+		outline = Outlines.alien(size);
 	}
 
 	/**
@@ -171,28 +152,17 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 	public void fire() {
 		if (this != null) {
 			if (this.size == 2) {
-				AlienBullet b = new AlienBullet(getXCenter(), getYCenter(), RANDOM.nextDouble() * Math.PI * 2,
-						controller);
+				double direction = controller.getRandom(RandomStream.ALIENS).nextDouble() * Math.PI * 2;
+				AlienBullet b = AlienBullet.create(getXCenter(), getYCenter(), direction, controller);
 				controller.addParticipant(b);
-				if (fireClip != null) {
-					if (fireClip.isRunning()) {
-						fireClip.stop();
-					}
-					fireClip.setFramePosition(0);
-					fireClip.start();
-				}
+				Audio.getSounds().play(Sound.FIRE);
 			} else if (size == 1 && controller.getShip() != null) {
-				double targetX = controller.getShip().getX() - this.getX();
-				double targetY = controller.getShip().getY() - this.getY();
-				AlienBullet b = new AlienBullet(getXCenter(), getYCenter(), Math.atan2(targetY, targetX), controller);
+				// Aim the short way around the edges of the screen
+				double targetX = shortestOffset(controller.getShip().getX() - this.getX());
+				double targetY = shortestOffset(controller.getShip().getY() - this.getY());
+				AlienBullet b = AlienBullet.create(getXCenter(), getYCenter(), Math.atan2(targetY, targetX), controller);
 				controller.addParticipant(b);
-				if (fireClip != null) {
-					if (fireClip.isRunning()) {
-						fireClip.stop();
-					}
-					fireClip.setFramePosition(0);
-					fireClip.start();
-				}
+				Audio.getSounds().play(Sound.FIRE);
 			}
 		}
 	}
@@ -211,19 +181,9 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 	@Override
 	public void collidedWith(Participant p) {
 		if (p instanceof AlienDestroyer) {
-			if (crashClip != null) {
-				if (crashClip.isActive()) {
-					crashClip.stop();
-				}
-				crashClip.setFramePosition(0);
-				crashClip.start();
-			}
-			if (smallAlienClip != null && smallAlienClip.isActive()) {
-				smallAlienClip.stop();
-			}
-			if (bigAlienClip != null && bigAlienClip.isActive()) {
-				bigAlienClip.stop();
-			}
+			Audio.getSounds().play(Sound.BANG_ALIEN_SHIP);
+			Audio.getSounds().stop(Sound.SAUCER_SMALL);
+			Audio.getSounds().stop(Sound.SAUCER_BIG);
 			Participant.expire(this);
 			controller.alienDestroyed();
 			if (p instanceof PlayerBullet) {
@@ -233,11 +193,11 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 					controller.addScore(Constants.ALIENSHIP_SCORE[1]);
 				}
 			}
-			Debris l1 = new AlienDebris(getX(), getY(), controller);
-			Debris l2 = new AlienDebris(getX() + 2, getY() + 2, controller);
-			Debris l3 = new AlienDebris(getX() - 1, getY() + 3, controller);
-			Debris l4 = new AlienDebris(getX() - 2, getY() + 4, controller);
-			Debris l5 = new AlienDebris(getX() + 1, getY() + 1, controller);
+			Debris l1 = AlienDebris.create(getX(), getY(), controller);
+			Debris l2 = AlienDebris.create(getX() + 2, getY() + 2, controller);
+			Debris l3 = AlienDebris.create(getX() - 1, getY() + 3, controller);
+			Debris l4 = AlienDebris.create(getX() - 2, getY() + 4, controller);
+			Debris l5 = AlienDebris.create(getX() + 1, getY() + 1, controller);
 			controller.addParticipant(l1);
 			controller.addParticipant(l2);
 			controller.addParticipant(l3);
@@ -252,11 +212,11 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 	 * one begins or a new level begins
 	 */
 	public void stopSound() {
-		if (size == 1 && smallAlienClip != null && smallAlienClip.isActive()) {
-			smallAlienClip.stop();
+		if (size == 1) {
+			Audio.getSounds().stop(Sound.SAUCER_SMALL);
 		}
-		if (size == 2 && bigAlienClip != null && bigAlienClip.isActive()) {
-			bigAlienClip.stop();
+		if (size == 2) {
+			Audio.getSounds().stop(Sound.SAUCER_BIG);
 		}
 	}
 
@@ -266,15 +226,15 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 	 */
 	@Override
 	public void countdownComplete(Object payload) {
-		if (size == 1 && smallAlienClip != null) {
-			smallAlienClip.loop(20);
-		} else if (size == 2 && bigAlienClip != null) {
-			bigAlienClip.loop(10);
+		if (size == 1) {
+			Audio.getSounds().loop(Sound.SAUCER_SMALL, 20);
+		} else if (size == 2) {
+			Audio.getSounds().loop(Sound.SAUCER_BIG, 10);
 		}
 		if (payload.equals("move")) {
 			if (timeToMove && !left) {
 				timeToMove = false;
-				double x = RANDOM.nextDouble() * 4;
+				double x = controller.getRandom(RandomStream.ALIENS).nextDouble() * 4;
 				if (x > 1 && x < 2) {
 					if (this.getSpeed() < 0) {
 						setVelocity(5, 3 * Math.PI / 4);
@@ -294,10 +254,10 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 						setVelocity(this.getSpeed(), 0);
 					}
 				}
-				move = new ParticipantCountdownTimer(this, "move", 750);
+				move.restart(750);
 			} else if (timeToMove && left) {
 				timeToMove = false;
-				double x = RANDOM.nextDouble() * 4;
+				double x = controller.getRandom(RandomStream.ALIENS).nextDouble() * 4;
 				if (x > 1 && x < 2) {
 					if (this.getSpeed() < 0) {
 						setVelocity(-5, 3 * Math.PI / 4);
@@ -317,21 +277,21 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 						setVelocity(-this.getSpeed(), 0);
 					}
 				}
-				move = new ParticipantCountdownTimer(this, "move", 750);
+				move.restart(750);
 			} else if (!timeToMove) {
 				timeToMove = true;
-				move = new ParticipantCountdownTimer(this, "move", 750);
+				move.restart(750);
 			}
 		}
 
 		if (payload.equals("fire") && this != null) {
 			if (timeToFire) {
 				timeToFire = false;
-				fire = new ParticipantCountdownTimer(this, "fire", 750);
+				fire.restart(750);
 				fire();
 			} else if (!timeToFire && this != null) {
 				timeToFire = true;
-				fire = new ParticipantCountdownTimer(this, "fire", 750);
+				fire.restart(750);
 			}
 		}
 		if (payload.equals("spawn") && this != null) {
@@ -340,42 +300,10 @@ public class Alien extends Participant implements AsteroidDestroyer, ShipDestroy
 	}
 
 	/**
-	 * draws a colorful ship if enhanced version
-	 * @param g
+	 * colors the ship green if enhanced version
 	 */
 	@Override
-	public void draw(Graphics2D g) {
-		if (controller.getEnhanced()) {
-			g.setColor(Color.GREEN);
-			super.draw(g);
-			g.setColor(Color.WHITE);
-		} else {
-			super.draw(g);
-		}
+	public Color getColor() {
+		return controller.getEnhanced() ? Color.GREEN : Color.WHITE;
 	}
-
-	/**
-	 * Creates sound clips
-	 */
-	@Override
-	public Clip createClip(String soundFile) {
-		// Opening the sound file this way will work no matter how the
-		// project is exported. The only restriction is that the
-		// sound files must be stored in a package.
-		try (BufferedInputStream sound = new BufferedInputStream(getClass().getResourceAsStream(soundFile))) {
-			// Create and return a Clip that will play a sound file. There are
-			// various reasons that the creation attempt could fail. If it
-			// fails, return null.
-			Clip clip = AudioSystem.getClip();
-			clip.open(AudioSystem.getAudioInputStream(sound));
-			return clip;
-		} catch (LineUnavailableException e) {
-			return null;
-		} catch (IOException e) {
-			return null;
-		} catch (UnsupportedAudioFileException e) {
-			return null;
-		}
-	}
-
 }
@@ -5,40 +5,83 @@ import asteroids.ParticipantCountdownTimer;
 import asteroids.destroyers.*;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.Shape;
-import java.awt.geom.Path2D;
 
 import asteroids.Constants;
 import asteroids.Controller;
+import asteroids.GameSnapshot;
 
 /**
  * Bullet fired by the alien
  * 
  * @author Gabriel Kerr and Jasper Slaff
  */
+@CollidesWith({ Asteroid.class, Ship.class })
 public class AlienBullet extends Participant implements ShipDestroyer, AsteroidDestroyer {
 
-	// bullet shape
-	private Shape outline;
 	// used to set color
 	private Controller controller;
+	// expires the bullet once it has traveled so far
+	private ParticipantCountdownTimer expire;
 
 	public AlienBullet(double x, double y, double direction, Controller controller) {
+		initialize(x, y, direction, controller);
+	}
+
+	/**
+	 * Returns a bullet at (x, y) heading in the given direction, reusing an
+	 * expired one if there is one
+	 */
+	public static AlienBullet create(double x, double y, double direction, Controller controller) {
+		AlienBullet b = controller.reuse(AlienBullet.class);
+		if (b == null) {
+			return new AlienBullet(x, y, direction, controller);
+		}
+		b.initialize(x, y, direction, controller);
+		return b;
+	}
+
+	/**
+	 * Creates a blank bullet to be restored from a snapshot.
+	 */
+	AlienBullet() {
+	}
+
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putTimer(expire);
+	}
+
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		expire = snapshot.getTimer();
+		controller = snapshot.getController();
+	}
+
+	/**
+	 * sets up a new or reused bullet
+	 */
+	private void initialize(double x, double y, double direction, Controller controller) {
 		setDirection(direction);
 		setVelocity(Constants.BULLET_SPEED, direction);
+		setPosition(x, y);
 		this.controller = controller;
 
-		Path2D.Double poly = new Path2D.Double();
-		poly.moveTo(x, y);
-		poly.lineTo(x - 1, y);
-		poly.lineTo(x - 1, y + 1);
-		poly.lineTo(x, y + 1);
-		poly.lineTo(x, y);
-		poly.closePath();
-		outline = poly;
+		if (expire == null) {
+			expire = new ParticipantCountdownTimer(this, "expire", Constants.BULLET_DURATION, controller);
+		} else {
+			expire.restart(Constants.BULLET_DURATION);
+		}
+	}
 
-		new ParticipantCountdownTimer(this, "expire", Constants.BULLET_DURATION);
+	/**
+	 * Bullets move fast enough to pass through a small asteroid in one move.
+	 */
+	@Override
+	protected boolean isSwept() {
+		return true;
 	}
 
 	/**
@@ -46,7 +89,7 @@ public class AlienBullet extends Participant implements ShipDestroyer, AsteroidD
 	 */
 	@Override
 	protected Shape getOutline() {
-		return outline;
+		return Outlines.BULLET;
 	}
 
 	/**
@@ -73,13 +116,7 @@ public class AlienBullet extends Participant implements ShipDestroyer, AsteroidD
 	 * changes color if enhanced
 	 */
 	@Override
-	public void draw(Graphics2D g) {
-		if (controller.getEnhanced()) {
-			g.setColor(Color.YELLOW);
-			super.draw(g);
-			g.setColor(Color.WHITE);
-		} else {
-			super.draw(g);
-		}
+	public Color getColor() {
+		return controller.getEnhanced() ? Color.YELLOW : Color.WHITE;
 	}
 }
@@ -1,9 +1,9 @@
 package asteroids.participants;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
 
 import asteroids.Controller;
+import asteroids.GameSnapshot;
 
 /**
  * Debris for the alien
@@ -15,19 +15,37 @@ public class AlienDebris extends Debris {
 	private Controller controller;
 
 	public AlienDebris(double x, double y, Controller controller) {
-		super(x, y);
+		super(x, y, controller);
 		this.controller = controller;
 	}
 
+	/**
+	 * Creates blank debris to be restored from a snapshot.
+	 */
+	AlienDebris() {
+	}
+
 	@Override
-	public void draw(Graphics2D g) {
-		if (controller.getEnhanced()) {
-			g.setColor(Color.GREEN);
-			super.draw(g);
-			g.setColor(Color.WHITE);
-		}
-		else{
-			super.draw(g);
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		controller = snapshot.getController();
+	}
+
+	/**
+	 * Returns alien debris at (x, y), reusing expired debris if there is any
+	 */
+	public static AlienDebris create(double x, double y, Controller controller) {
+		AlienDebris d = controller.reuse(AlienDebris.class);
+		if (d == null) {
+			return new AlienDebris(x, y, controller);
 		}
+		d.initialize(x, y, controller);
+		d.controller = controller;
+		return d;
+	}
+
+	@Override
+	public Color getColor() {
+		return controller.getEnhanced() ? Color.GREEN : Color.WHITE;
 	}
 }
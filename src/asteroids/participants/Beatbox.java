@@ -2,20 +2,16 @@ package asteroids.participants;
 
 import java.awt.Shape;
 import java.awt.geom.Path2D;
-import java.io.BufferedInputStream;
-import java.io.IOException;
-
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
 
+import asteroids.Audio;
 import asteroids.Constants;
+import asteroids.Controller;
+import asteroids.GameSnapshot;
 import asteroids.Participant;
 import asteroids.ParticipantCountdownTimer;
-import asteroids.Sounds;
+import asteroids.Sound;
 
-public class Beatbox extends Participant implements Sounds {
+public class Beatbox extends Participant {
 
 	// beat frequency
 	private int beatFrequency = Constants.INITIAL_BEAT;
@@ -23,20 +19,42 @@ public class Beatbox extends Participant implements Sounds {
 	// the outline of the beatbox
 	private Shape outline;
 
-	// sound clips
-	private Clip beat1;
-	private Clip beat2;
-
 	// If true plays beat1 else plays beat2
 	private boolean beatSwitch = true;
 
-	public Beatbox() {
+	// Counts down to the next beat
+	private ParticipantCountdownTimer beat;
+
+	/**
+	 * Creates a beatbox that keeps time on the clock of controller.
+	 */
+	public Beatbox(Controller controller) {
 		outline = new Path2D.Double();
+		beat = new ParticipantCountdownTimer(this, "beat", beatFrequency, controller);
+	}
 
-		beat1 = createClip("/sounds/beat1.wav");
-		beat2 = createClip("/sounds/beat2.wav");
+	/**
+	 * Creates a beatbox whose beat is not started, to be restored from a
+	 * snapshot.
+	 */
+	Beatbox() {
+		outline = new Path2D.Double();
+	}
 
-		new ParticipantCountdownTimer(this, "beat", beatFrequency);
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putInt(beatFrequency);
+		snapshot.putBoolean(beatSwitch);
+		snapshot.putTimer(beat);
+	}
+
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		beatFrequency = snapshot.getInt();
+		beatSwitch = snapshot.getBoolean();
+		beat = snapshot.getTimer();
 	}
 
 	@Override
@@ -63,41 +81,15 @@ public class Beatbox extends Participant implements Sounds {
 
 			// Turns the beatSwitch on and off and plays the clip.
 			if (beatSwitch) {
-				if (beat1 != null) {
-					beat1.setFramePosition(0);
-					beat1.start();
-				}
+				Audio.getSounds().play(Sound.BEAT1);
 				beatSwitch = false;
 			} else {
-				if (beat2 != null) {
-					beat2.setFramePosition(0);
-					beat2.start();
-				}
+				Audio.getSounds().play(Sound.BEAT2);
 				beatSwitch = true;
 			}
 
-			new ParticipantCountdownTimer(this, "beat", beatFrequency);
+			beat.restart(beatFrequency);
 		}
 	}
 
-	@Override
-	public Clip createClip(String soundFile) {
-		// Opening the sound file this way will work no matter how the
-		// project is exported. The only restriction is that the
-		// sound files must be stored in a package.
-		try (BufferedInputStream sound = new BufferedInputStream(getClass().getResourceAsStream(soundFile))) {
-			// Create and return a Clip that will play a sound file. There are
-			// various reasons that the creation attempt could fail. If it
-			// fails, return null.
-			Clip clip = AudioSystem.getClip();
-			clip.open(AudioSystem.getAudioInputStream(sound));
-			return clip;
-		} catch (LineUnavailableException e) {
-			return null;
-		} catch (IOException e) {
-			return null;
-		} catch (UnsupportedAudioFileException e) {
-			return null;
-		}
-	}
 }
\ No newline at end of file
@@ -1,26 +1,22 @@
 package asteroids.participants;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.awt.geom.Path2D;
-import java.io.BufferedInputStream;
-import java.io.IOException;
-
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
 
+import asteroids.Audio;
 import asteroids.Constants;
 import asteroids.Controller;
+import asteroids.GameRandom;
+import asteroids.GameSnapshot;
 import asteroids.Participant;
 import asteroids.ParticipantCountdownTimer;
-import asteroids.Sounds;
+import asteroids.RandomStream;
+import asteroids.Sound;
 import asteroids.destroyers.BossDestroyer;
 import asteroids.destroyers.ShipDestroyer;
 
-public class BossAlien extends Participant implements ShipDestroyer, Sounds{
+public class BossAlien extends Participant implements ShipDestroyer{
 	//controller of the current game
 	private Controller controller;
 	//shape of the boss
@@ -29,8 +25,6 @@ public class BossAlien extends Participant implements ShipDestroyer, Sounds{
 	private boolean timeToFire = true;
 	// health of the boss alien
 	private int health;
-	// crash clip
-	private Clip destroyClip;
 	//timers
 	ParticipantCountdownTimer fire;
 	ParticipantCountdownTimer stop;
@@ -39,7 +33,22 @@ public class BossAlien extends Participant implements ShipDestroyer, Sounds{
 		setPosition(x, y);
 		this.controller = controller;
 		health = (controller.getLevel()+5)*10;
+		outline = createOutline();
 		
+		stop = new ParticipantCountdownTimer(this, "stop", 1000 + Constants.ALIEN_DELAY, controller);
+		fire = new ParticipantCountdownTimer(this, "fire", 1500 + Constants.ALIEN_DELAY, controller);
+	}
+
+	/**
+	 * Creates a blank boss to be restored from a snapshot.
+	 */
+	BossAlien() {
+	}
+
+	/**
+	 * Creates the outline of the boss.
+	 */
+	private static Shape createOutline() {
 		Path2D.Double poly = new Path2D.Double();
 		poly.moveTo(0, 0);
 		poly.lineTo(600, 0);
@@ -51,12 +60,27 @@ public class BossAlien extends Participant implements ShipDestroyer, Sounds{
 		poly.lineTo(600, -100);
 		poly.lineTo(650, -50);
 		poly.closePath();
-		outline = poly;
-		
-		destroyClip = createClip("/sounds/bangLarge.wav");
-		
-		stop = new ParticipantCountdownTimer(this, "stop", 1000 + Constants.ALIEN_DELAY);
-		fire = new ParticipantCountdownTimer(this, "fire", 1500 + Constants.ALIEN_DELAY);
+		return poly;
+	}
+
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putInt(health);
+		snapshot.putBoolean(timeToFire);
+		snapshot.putTimer(fire);
+		snapshot.putTimer(stop);
+	}
+
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		health = snapshot.getInt();
+		timeToFire = snapshot.getBoolean();
+		fire = snapshot.getTimer();
+		stop = snapshot.getTimer();
+		controller = snapshot.getController();
+		outline = createOutline();
 	}
 
 	@Override
@@ -72,18 +96,13 @@ public class BossAlien extends Participant implements ShipDestroyer, Sounds{
 		if(health <= 0){
 			expire(this);
 			controller.bossDestroyed();
+			GameRandom random = controller.getRandom(RandomStream.DEBRIS);
 			for(int i = 0; i < 25; i++){
-				Debris d = new AlienDebris(Constants.RANDOM.nextInt(Constants.SIZE), Constants.RANDOM.nextInt(200), controller);
+				Debris d = AlienDebris.create(random.nextInt(Constants.SIZE), random.nextInt(200), controller);
 				controller.addParticipant(d);
 			}
 			controller.addScore(5000);
-			if(destroyClip != null){
-				if(destroyClip.isActive()){
-					destroyClip.stop();
-				}
-				destroyClip.setFramePosition(0);
-				destroyClip.start();
-			}
+			Audio.getSounds().play(Sound.BANG_LARGE);
 		}
 	}
 	
@@ -91,8 +110,8 @@ public class BossAlien extends Participant implements ShipDestroyer, Sounds{
 		if(controller.getShip() != null){
 		double targetX = controller.getShip().getX() - this.getX();
 		double targetY = controller.getShip().getY() - this.getY();
-		BossBullet b1 = new BossBullet(getX()+600, getY(), Math.atan2(targetY, targetX-600));
-		BossBullet b2 = new BossBullet(getX(), getY(), Math.atan2(targetY, targetX));
+		BossBullet b1 = BossBullet.create(getX()+600, getY(), Math.atan2(targetY, targetX-600), controller);
+		BossBullet b2 = BossBullet.create(getX(), getY(), Math.atan2(targetY, targetX), controller);
 		controller.addParticipant(b1);
 		controller.addParticipant(b2);
 		}
@@ -110,11 +129,11 @@ public class BossAlien extends Participant implements ShipDestroyer, Sounds{
 		if (payload.equals("fire") && this != null) {
 			if (timeToFire) {
 				timeToFire = false;
-				fire = new ParticipantCountdownTimer(this, "fire", 250);
+				fire.restart(250);
 				fire();
 			} else if (!timeToFire && this != null) {
 				timeToFire = true;
-				fire = new ParticipantCountdownTimer(this, "fire", 1500);
+				fire.restart(1500);
 			}
 		}
 	}
@@ -124,30 +143,8 @@ public class BossAlien extends Participant implements ShipDestroyer, Sounds{
 	}
 
 	@Override
-	public void draw(Graphics2D g){
-		g.setColor(Color.GREEN);
-		super.draw(g);
-		g.setColor(Color.WHITE);
+	public Color getColor() {
+		return Color.GREEN;
 	}
 
-	@Override
-	public Clip createClip(String soundFile) {
-		// Opening the sound file this way will work no matter how the
-				// project is exported. The only restriction is that the
-				// sound files must be stored in a package.
-				try (BufferedInputStream sound = new BufferedInputStream(getClass().getResourceAsStream(soundFile))) {
-					// Create and return a Clip that will play a sound file. There are
-					// various reasons that the creation attempt could fail. If it
-					// fails, return null.
-					Clip clip = AudioSystem.getClip();
-					clip.open(AudioSystem.getAudioInputStream(sound));
-					return clip;
-				} catch (LineUnavailableException e) {
-					return null;
-				} catch (IOException e) {
-					return null;
-				} catch (UnsupportedAudioFileException e) {
-					return null;
-				}
-	}
 }
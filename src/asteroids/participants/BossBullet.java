@@ -1,38 +1,79 @@
 package asteroids.participants;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.Shape;
-import java.awt.geom.Path2D;
 
 import asteroids.Constants;
+import asteroids.Controller;
+import asteroids.GameSnapshot;
 import asteroids.Participant;
 import asteroids.ParticipantCountdownTimer;
+import asteroids.destroyers.CollidesWith;
 import asteroids.destroyers.ShipDestroyer;
 
+@CollidesWith(Participant.class)
 public class BossBullet extends Participant implements ShipDestroyer {
 
-	private Shape outline;
+	private ParticipantCountdownTimer expire;
 
-	public BossBullet(double x, double y, double direction) {
+	public BossBullet(double x, double y, double direction, Controller controller) {
+		initialize(x, y, direction, controller);
+	}
+
+	/**
+	 * Returns a bullet at (x, y) heading in the given direction, reusing an
+	 * expired one from the controller if there is one
+	 */
+	public static BossBullet create(double x, double y, double direction, Controller controller) {
+		BossBullet b = controller.reuse(BossBullet.class);
+		if (b == null) {
+			return new BossBullet(x, y, direction, controller);
+		}
+		b.initialize(x, y, direction, controller);
+		return b;
+	}
+
+	/**
+	 * Creates a blank bullet to be restored from a snapshot.
+	 */
+	BossBullet() {
+	}
+
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putTimer(expire);
+	}
+
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		expire = snapshot.getTimer();
+	}
+
+	private void initialize(double x, double y, double direction, Controller controller) {
 		setVelocity(15, direction);
 		setDirection(direction);
+		setPosition(x, y);
 
-		Path2D.Double poly = new Path2D.Double();
-		poly.moveTo(x, y);
-		poly.lineTo(x - 1, y);
-		poly.lineTo(x - 1, y + 1);
-		poly.lineTo(x, y + 1);
-		poly.lineTo(x, y);
-		poly.closePath();
-		outline = poly;
-		
-		new ParticipantCountdownTimer(this, "expire", Constants.BULLET_DURATION+500);
+		if (expire == null) {
+			expire = new ParticipantCountdownTimer(this, "expire", Constants.BULLET_DURATION+500, controller);
+		} else {
+			expire.restart(Constants.BULLET_DURATION+500);
+		}
+	}
+
+	/**
+	 * Bullets move fast enough to pass through the ship in one move.
+	 */
+	@Override
+	protected boolean isSwept() {
+		return true;
 	}
 
 	@Override
 	protected Shape getOutline() {
-		return outline;
+		return Outlines.BULLET;
 	}
 
 	@Override
@@ -50,9 +91,7 @@ public class BossBullet extends Participant implements ShipDestroyer {
 	}
 
 	@Override
-	public void draw(Graphics2D g){
-		g.setColor(Color.YELLOW);
-		super.draw(g);
-		g.setColor(Color.WHITE);
+	public Color getColor() {
+		return Color.YELLOW;
 	}
 }
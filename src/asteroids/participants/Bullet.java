@@ -1,43 +1,76 @@
 package asteroids.participants;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.Shape;
-import java.awt.geom.Path2D;
 
 import asteroids.Participant;
+import asteroids.ParticipantCountdownTimer;
 import asteroids.destroyers.*;
 import asteroids.Constants;
 import asteroids.Controller;
+import asteroids.GameSnapshot;
 
 /**
  * 
  * @author Gabriel Kerr, and Jasper Slaff
  */
 public class Bullet extends Participant implements AsteroidDestroyer {
-	// bullet shape
-	private Shape outline;
 	// used to set color
 	private Controller controller;
+	// expires the bullet once it has gone as far as it can
+	private ParticipantCountdownTimer furthestDistance;
 
 	public Bullet(double x, double y, double direction, Controller controller) {
+		initialize(x, y, direction, controller);
+	}
+
+	/**
+	 * Creates a blank bullet to be restored from a snapshot.
+	 */
+	Bullet() {
+	}
+
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putTimer(furthestDistance);
+	}
+
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		furthestDistance = snapshot.getTimer();
+		controller = snapshot.getController();
+	}
+
+	/**
+	 * sets up a new or reused bullet at (x, y) heading in the given direction
+	 */
+	protected void initialize(double x, double y, double direction, Controller controller) {
 		setDirection(direction);
 		setVelocity(Constants.BULLET_SPEED, direction);
+		setPosition(x, y);
 		this.controller = controller;
 
-		Path2D.Double poly = new Path2D.Double();
-		poly.moveTo(x, y);
-		poly.lineTo(x - 1, y);
-		poly.lineTo(x - 1, y + 1);
-		poly.lineTo(x, y + 1);
-		poly.lineTo(x, y);
-		poly.closePath();
-		outline = poly;
+		if (furthestDistance == null) {
+			furthestDistance = new ParticipantCountdownTimer(this, "furthestDistance", Constants.BULLET_DURATION,
+					controller);
+		} else {
+			furthestDistance.restart(Constants.BULLET_DURATION);
+		}
+	}
+
+	/**
+	 * Bullets move fast enough to pass through a small asteroid in one move.
+	 */
+	@Override
+	protected boolean isSwept() {
+		return true;
 	}
 
 	@Override
 	protected Shape getOutline() {
-		return outline;
+		return Outlines.BULLET;
 	}
 
 	@Override
@@ -55,13 +88,7 @@ public class Bullet extends Participant implements AsteroidDestroyer {
 	 * color changes when enhanced
 	 */
 	@Override
-	public void draw(Graphics2D g) {
-		if (controller.getEnhanced()) {
-			g.setColor(Color.YELLOW);
-			super.draw(g);
-			g.setColor(Color.WHITE);
-		} else {
-			super.draw(g);
-		}
+	public Color getColor() {
+		return controller.getEnhanced() ? Color.YELLOW : Color.WHITE;
 	}
 }
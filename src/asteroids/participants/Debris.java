@@ -1,11 +1,14 @@
 package asteroids.participants;
 
 import java.awt.Shape;
-import java.awt.geom.Path2D;
 
 import asteroids.Participant;
 import asteroids.ParticipantCountdownTimer;
 import asteroids.Constants;
+import asteroids.Controller;
+import asteroids.GameRandom;
+import asteroids.GameSnapshot;
+import asteroids.RandomStream;
 
 /**
  * Debris of ships
@@ -13,20 +16,74 @@ import asteroids.Constants;
  * @author Gabriel Kerr, Jasper Slaff
  */
 public class Debris extends Participant {
-	// outline of debris
+	// outline of debris, a line from the origin to (dx, dy)
 	private Shape outline;
+	private int dx, dy;
+	// expires the debris
+	private ParticipantCountdownTimer floatAway;
 
-	public Debris(double x, double y) {
-		setSpeed(Constants.RANDOM.nextInt(5));
-		setDirection(Constants.RANDOM.nextInt(360));
+	public Debris(double x, double y, Controller controller) {
+		initialize(x, y, controller);
+	}
+
+	/**
+	 * Returns debris at (x, y), reusing expired debris from the controller if
+	 * there is any
+	 */
+	public static Debris create(double x, double y, Controller controller) {
+		Debris d = controller.reuse(Debris.class);
+		if (d == null) {
+			return new Debris(x, y, controller);
+		}
+		d.initialize(x, y, controller);
+		return d;
+	}
 
-		Path2D.Double poly = new Path2D.Double();
-		poly.moveTo(x, y);
-		poly.lineTo(x + Constants.RANDOM.nextInt(20), y + Constants.RANDOM.nextInt(20));
-		poly.closePath();
-		outline = poly;
+	/**
+	 * Creates blank debris to be restored from a snapshot.
+	 */
+	Debris() {
+	}
+
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putInt(dx);
+		snapshot.putInt(dy);
+		snapshot.putTimer(floatAway);
+	}
 
-		new ParticipantCountdownTimer(this, "floatAway", Constants.RANDOM.nextInt(2000));
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		dx = snapshot.getInt();
+		dy = snapshot.getInt();
+		if (dx < 0 || dx >= Constants.DEBRIS_LENGTH || dy < 0 || dy >= Constants.DEBRIS_LENGTH) {
+			throw new IllegalArgumentException("Invalid debris in game snapshot");
+		}
+		outline = Outlines.debris(dx, dy);
+		floatAway = snapshot.getTimer();
+	}
+
+	/**
+	 * sets up new or reused debris, a line of random length starting at
+	 * (x, y)
+	 */
+	protected void initialize(double x, double y, Controller controller) {
+		GameRandom random = controller.getRandom(RandomStream.DEBRIS);
+		setSpeed(random.nextInt(5));
+		setDirection(random.nextInt(360));
+		setPosition(x, y);
+
+		dx = random.nextInt(Constants.DEBRIS_LENGTH);
+		dy = random.nextInt(Constants.DEBRIS_LENGTH);
+		outline = Outlines.debris(dx, dy);
+
+		if (floatAway == null) {
+			floatAway = new ParticipantCountdownTimer(this, "floatAway", random.nextInt(2000), controller);
+		} else {
+			floatAway.restart(random.nextInt(2000));
+		}
 	}
 
 	@Override
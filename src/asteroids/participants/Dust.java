@@ -1,14 +1,14 @@
 package asteroids.participants;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.Shape;
-import java.awt.geom.Path2D;
 
-import asteroids.Constants;
 import asteroids.Controller;
+import asteroids.GameRandom;
+import asteroids.GameSnapshot;
 import asteroids.Participant;
 import asteroids.ParticipantCountdownTimer;
+import asteroids.RandomStream;
 
 /**
  * Dust when asteroids are destroyed
@@ -17,30 +17,65 @@ import asteroids.ParticipantCountdownTimer;
  */
 public class Dust extends Participant {
 
-	private Shape outline;
-
 	private Controller controller;
 
+	private ParticipantCountdownTimer floatAway;
+
 	public Dust(double x, double y, Controller controller) {
+		initialize(x, y, controller);
+	}
+
+	/**
+	 * Returns dust at (x, y), reusing expired dust if there is any
+	 */
+	public static Dust create(double x, double y, Controller controller) {
+		Dust d = controller.reuse(Dust.class);
+		if (d == null) {
+			return new Dust(x, y, controller);
+		}
+		d.initialize(x, y, controller);
+		return d;
+	}
+
+	/**
+	 * Creates blank dust to be restored from a snapshot.
+	 */
+	Dust() {
+	}
+
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putTimer(floatAway);
+	}
+
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		floatAway = snapshot.getTimer();
+		controller = snapshot.getController();
+	}
+
+	/**
+	 * sets up new or reused dust drifting away from (x, y)
+	 */
+	private void initialize(double x, double y, Controller controller) {
 		this.controller = controller;
-		setSpeed(Constants.RANDOM.nextInt(5));
-		setDirection(Constants.RANDOM.nextInt(360));
-
-		Path2D.Double poly = new Path2D.Double();
-		poly.moveTo(x + 3, y);
-		poly.lineTo(x + 3, y + 1);
-		poly.lineTo(x + 2, y + 1);
-		poly.lineTo(x + 2, y);
-		poly.lineTo(x + 3, y);
-		poly.closePath();
-		outline = poly;
-
-		new ParticipantCountdownTimer(this, "floatAway", Constants.RANDOM.nextInt(2000));
+		GameRandom random = controller.getRandom(RandomStream.DEBRIS);
+		setSpeed(random.nextInt(5));
+		setDirection(random.nextInt(360));
+		setPosition(x, y);
+
+		if (floatAway == null) {
+			floatAway = new ParticipantCountdownTimer(this, "floatAway", random.nextInt(2000), controller);
+		} else {
+			floatAway.restart(random.nextInt(2000));
+		}
 	}
 
 	@Override
 	protected Shape getOutline() {
-		return outline;
+		return Outlines.DUST;
 	}
 
 	@Override
@@ -55,13 +90,7 @@ public class Dust extends Participant {
 	}
 
 	@Override
-	public void draw(Graphics2D g) {
-		if (controller.getEnhanced()) {
-			g.setColor(Color.PINK);
-			super.draw(g);
-			g.setColor(Color.WHITE);
-		} else {
-			super.draw(g);
-		}
+	public Color getColor() {
+		return controller.getEnhanced() ? Color.PINK : Color.WHITE;
 	}
 }
@@ -1,20 +1,23 @@
 package asteroids.participants;
 
 import java.awt.Shape;
-import java.awt.geom.Path2D;
 
 import asteroids.Constants;
 import asteroids.Controller;
+import asteroids.GameSnapshot;
 import asteroids.Participant;
 import asteroids.ParticipantCountdownTimer;
+import asteroids.ParticipantState;
 import asteroids.destroyers.AlienDestroyer;
 import asteroids.destroyers.AsteroidDestroyer;
+import asteroids.destroyers.CollidesWith;
 import asteroids.destroyers.ShipDestroyer;
 
 /**
  * Represents missile. Keeps track of how many missiles are active. Missile
  * simulates realistic missile by accelerating gradually over time.
  */
+@CollidesWith(ShipDestroyer.class)
 public class Missile extends Participant implements AlienDestroyer, AsteroidDestroyer {
 	// The outline of the missile
 	private Shape outline;
@@ -31,6 +34,9 @@ public class Missile extends Participant implements AlienDestroyer, AsteroidDest
 	// Determines whether or not the flame is on
 	private boolean flameOn = false;
 
+	// Adjusts the speed and course of the missile every 50 milliseconds
+	private ParticipantCountdownTimer accelerate;
+
 	/**
 	 * Draws one missile. Sets it at constant speed in direction of parameter.
 	 * Starts timer to expire Bullet. Increments missileCount. Starts timer for
@@ -47,8 +53,34 @@ public class Missile extends Participant implements AlienDestroyer, AsteroidDest
 
 		missileCount++;
 
-		new ParticipantCountdownTimer(this, "expire", 10000);
-		new ParticipantCountdownTimer(this, "accelerate", 75);
+		new ParticipantCountdownTimer(this, "expire", 10000, controller);
+		accelerate = new ParticipantCountdownTimer(this, "accelerate", 75, controller);
+	}
+
+	/**
+	 * Creates a blank missile to be restored from a snapshot. It is not
+	 * counted, since the count is restored along with the game.
+	 */
+	Missile() {
+	}
+
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putInt(velocityBrake);
+		snapshot.putBoolean(flameOn);
+		snapshot.putBoolean(outline == Outlines.MISSILE_WITH_FLAME);
+		snapshot.putTimer(accelerate);
+	}
+
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		velocityBrake = snapshot.getInt();
+		flameOn = snapshot.getBoolean();
+		outline = snapshot.getBoolean() ? Outlines.MISSILE_WITH_FLAME : Outlines.MISSILE;
+		accelerate = snapshot.getTimer();
+		controller = snapshot.getController();
 	}
 
 	/**
@@ -66,14 +98,17 @@ public class Missile extends Participant implements AlienDestroyer, AsteroidDest
 	}
 
 	/**
-	 * Calibrates the direction and rotation of the missile to the alienShip.
-	 * Adjusts course of the missile by PI/24.
+	 * Calibrates the direction and rotation of the missile to the target,
+	 * taking the short way around the edges of the screen. Adjusts course of
+	 * the missile by PI/16. Keeps course if there is no target.
 	 */
-	public void calibrateMissile(Alien alienShip) {
-		// Finds the distance to the alienShip from this missile.
-		// double direction = alienShip.findDirectionFrom(this.getX(),
-		// this.getY());
-		double direction = Math.atan2(alienShip.getY() - this.getY(), alienShip.getX() - this.getX());
+	public void calibrateMissile(Participant target) {
+		if (target == null) {
+			return;
+		}
+		// Finds the direction to the target from this missile.
+		double direction = Math.atan2(shortestOffset(target.getY() - this.getY()),
+				shortestOffset(target.getX() - this.getX()));
 		// chooses which way the missile should turn
 		double delta = chooseTheta(direction, this.getDirection());
 		// If delta is positive adjusts course by adding some rad.
@@ -91,6 +126,20 @@ public class Missile extends Participant implements AlienDestroyer, AsteroidDest
 		setRotation(getDirection());
 	}
 
+	/**
+	 * Returns what the missile homes on: the nearest alien, or if there is
+	 * none the nearest asteroid, or null if there is nothing to home on. The
+	 * boss is left out, since a missile cannot harm it.
+	 */
+	private Participant findTarget() {
+		ParticipantState state = controller.getParticipantState();
+		Participant target = state.findNearest(Alien.class, getX(), getY());
+		if (target == null) {
+			target = state.findNearest(Asteroid.class, getX(), getY());
+		}
+		return target;
+	}
+
 	/**
 	 * Returns the normalized shortest angle in radians between vector
 	 * direction1 and direction2.
@@ -106,6 +155,14 @@ public class Missile extends Participant implements AlienDestroyer, AsteroidDest
 			return difference2;
 	}
 
+	/**
+	 * The missile speeds up until it can pass through a small alien in one move.
+	 */
+	@Override
+	protected boolean isSwept() {
+		return true;
+	}
+
 	@Override
 	protected Shape getOutline() {
 		return outline;
@@ -141,7 +198,7 @@ public class Missile extends Participant implements AlienDestroyer, AsteroidDest
 			}
 			setVelocity(Constants.BULLET_SPEED / velocityBrake, getDirection());
 			// setVelocity(Constants.BULLET_SPEED, getDirection());
-			calibrateMissile(controller.getAlien());
+			calibrateMissile(findTarget());
 			// turn missile flame on and off
 			if (flameOn) {
 				turnMissileFlameOn();
@@ -150,7 +207,7 @@ public class Missile extends Participant implements AlienDestroyer, AsteroidDest
 				turnMissileFlameOff();
 				flameOn = true;
 			}
-			new ParticipantCountdownTimer(this, "accelerate", 50);
+			accelerate.restart(50);
 
 		}
 	}
@@ -159,32 +216,14 @@ public class Missile extends Participant implements AlienDestroyer, AsteroidDest
 	 * Creates outline of the missile.
 	 */
 	private void drawMissile() {
-		Path2D.Double poly = new Path2D.Double();
-		poly.moveTo(10, 0);
-		poly.lineTo(-10, 5);
-		poly.lineTo(-6, 5);
-		poly.lineTo(-6, -5);
-		poly.lineTo(-10, -5);
-		poly.closePath();
-		outline = poly;
+		outline = Outlines.MISSILE;
 	}
 
 	/**
 	 * Creates outline of the missile with flame.
 	 */
 	private void drawFlameMissile() {
-		Path2D.Double poly = new Path2D.Double();
-		poly.moveTo(10, 0);
-		poly.lineTo(-10, 5);
-		poly.lineTo(-6, 5);
-		poly.lineTo(-6, -5);
-		poly.lineTo(-10, -5);
-		poly.closePath();
-		poly.moveTo(-6, 2);
-		poly.lineTo(-20, 0);
-		poly.lineTo(-6, -2);
-		poly.closePath();
-		outline = poly;
+		outline = Outlines.MISSILE_WITH_FLAME;
 	}
 
 	/**
@@ -0,0 +1,261 @@
+package asteroids.participants;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+
+import asteroids.OutlineGeometry;
+import static asteroids.Constants.*;
+
+/**
+ * The outlines shared by every asteroid, alien, ship, missile, bullet, and
+ * piece of dust or debris. Each outline
+ * is built once, when this class is loaded, and every participant of the same
+ * variety, size or flame state refers to the same Shape. The shapes must never
+ * be modified. Each is also flattened once with OutlineGeometry.share, so
+ * participants do not keep their own copies of the vertices.
+ */
+public class Outlines {
+	// Asteroid outlines indexed by variety and then size
+	private final static Shape[][] ASTEROIDS = new Shape[4][ASTEROID_SCALE.length];
+
+	// Alien outlines indexed by size (1 = small, 2 = medium)
+	private final static Shape[] ALIENS = new Shape[3];
+
+	// Debris outlines indexed by the horizontal and then vertical offset of
+	// the far end of the line
+	private final static Shape[][] DEBRIS = new Shape[DEBRIS_LENGTH][DEBRIS_LENGTH];
+
+	/**
+	 * The ship with its thruster off
+	 */
+	public final static Shape SHIP = OutlineGeometry.share(createShip(false));
+
+	/**
+	 * The ship with its thruster flame showing
+	 */
+	public final static Shape SHIP_WITH_FLAME = OutlineGeometry.share(createShip(true));
+
+	/**
+	 * The missile with its thruster off
+	 */
+	public final static Shape MISSILE = OutlineGeometry.share(createMissile(false));
+
+	/**
+	 * The missile with its thruster flame showing
+	 */
+	public final static Shape MISSILE_WITH_FLAME = OutlineGeometry.share(createMissile(true));
+
+	/**
+	 * A bullet of any kind
+	 */
+	public final static Shape BULLET = OutlineGeometry.share(createSquare(-1, 0));
+
+	/**
+	 * A speck of asteroid dust
+	 */
+	public final static Shape DUST = OutlineGeometry.share(createSquare(2, 0));
+
+	static {
+		for (int variety = 0; variety < ASTEROIDS.length; variety++) {
+			for (int size = 0; size < ASTEROID_SCALE.length; size++) {
+				ASTEROIDS[variety][size] = OutlineGeometry.share(createAsteroid(variety, size));
+			}
+		}
+		ALIENS[1] = OutlineGeometry.share(createAlien(1));
+		ALIENS[2] = OutlineGeometry.share(createAlien(2));
+		for (int dx = 0; dx < DEBRIS_LENGTH; dx++) {
+			for (int dy = 0; dy < DEBRIS_LENGTH; dy++) {
+				DEBRIS[dx][dy] = OutlineGeometry.share(createDebris(dx, dy));
+			}
+		}
+	}
+
+	/**
+	 * Returns the outline of an asteroid of the given variety (0 through 3)
+	 * and size (0 = small, 1 = medium, 2 = large).
+	 */
+	public static Shape asteroid(int variety, int size) {
+		return ASTEROIDS[variety][size];
+	}
+
+	/**
+	 * Returns the outline of an alien of the given size (1 = small, 2 =
+	 * medium), or null if there is no such size.
+	 */
+	public static Shape alien(int size) {
+		return (size == 1 || size == 2) ? ALIENS[size] : null;
+	}
+
+	/**
+	 * Returns the outline of a piece of debris, a line from the origin to
+	 * (dx, dy), where each offset is from 0 to DEBRIS_LENGTH - 1.
+	 */
+	public static Shape debris(int dx, int dy) {
+		return DEBRIS[dx][dy];
+	}
+
+	/**
+	 * Creates the outline of an asteroid based on its variety and size.
+	 */
+	private static Shape createAsteroid(int variety, int size) {
+		// This will contain the outline
+		Path2D.Double poly = new Path2D.Double();
+
+		// Fill out according to variety
+		if (variety == 0) {
+			poly.moveTo(0, -30);
+			poly.lineTo(28, -15);
+			poly.lineTo(20, 20);
+			poly.lineTo(4, 8);
+			poly.lineTo(-1, 30);
+			poly.lineTo(-12, 15);
+			poly.lineTo(-5, 2);
+			poly.lineTo(-25, 7);
+			poly.lineTo(-10, -25);
+			poly.closePath();
+		} else if (variety == 1) {
+			poly.moveTo(10, -28);
+			poly.lineTo(7, -16);
+			poly.lineTo(30, -9);
+			poly.lineTo(30, 9);
+			poly.lineTo(10, 13);
+			poly.lineTo(5, 30);
+			poly.lineTo(-8, 28);
+			poly.lineTo(-6, 6);
+			poly.lineTo(-27, 12);
+			poly.lineTo(-30, -11);
+			poly.lineTo(-6, -15);
+			poly.lineTo(-6, -28);
+			poly.closePath();
+		} else if (variety == 2) {
+			poly.moveTo(10, -30);
+			poly.lineTo(30, 0);
+			poly.lineTo(15, 30);
+			poly.lineTo(0, 15);
+			poly.lineTo(-15, 30);
+			poly.lineTo(-30, 0);
+			poly.lineTo(-10, -30);
+			poly.closePath();
+		} else {
+			poly.moveTo(30, -18);
+			poly.lineTo(5, 5);
+			poly.lineTo(30, 15);
+			poly.lineTo(15, 30);
+			poly.lineTo(0, 25);
+			poly.lineTo(-15, 30);
+			poly.lineTo(-25, 8);
+			poly.lineTo(-10, -25);
+			poly.lineTo(0, -30);
+			poly.lineTo(10, -30);
+			poly.closePath();
+		}
+
+		// Scale to the desired size
+		double scale = ASTEROID_SCALE[size];
+		poly.transform(AffineTransform.getScaleInstance(scale, scale));
+		return poly;
+	}
+
+	/**
+	 * Creates the outline of an alien of the given size.
+	 */
+	private static Shape createAlien(int size) {
+		Path2D.Double poly = new Path2D.Double();
+		if (size == 1) {
+			poly.moveTo(0, 0);
+			poly.lineTo(15, 0);
+			poly.lineTo(20, -5);
+			poly.lineTo(-5, -5);
+			poly.closePath();
+			poly.moveTo(20, -5);
+			poly.lineTo(15, -10);
+			poly.lineTo(0, -10);
+			poly.lineTo(-5, -5);
+			poly.moveTo(15, -10);
+			poly.lineTo(12, -13);
+			poly.lineTo(3, -13);
+			poly.lineTo(0, -10);
+		} else {
+			poly.moveTo(0, 0);
+			poly.lineTo(30, 0);
+			poly.lineTo(40, -10);
+			poly.lineTo(-10, -10);
+			poly.closePath();
+			poly.moveTo(40, -10);
+			poly.lineTo(30, -20);
+			poly.lineTo(0, -20);
+			poly.lineTo(-10, -10);
+			poly.moveTo(30, -20);
+			poly.lineTo(24, -26);
+			poly.lineTo(6, -26);
+			poly.lineTo(0, -20);
+		}
+		return poly;
+	}
+
+	/**
+	 * Creates the outline of the ship, with or without its flame.
+	 */
+	private static Shape createShip(boolean flame) {
+		Path2D.Double poly = new Path2D.Double();
+		poly.moveTo(20, 0);
+		poly.lineTo(-20, 12);
+		poly.lineTo(-13, 10);
+		poly.lineTo(-13, -10);
+		poly.lineTo(-20, -12);
+		poly.closePath();
+		if (flame) {
+			poly.moveTo(-13, -10);
+			poly.lineTo(-25, 0);
+			poly.lineTo(-13, 10);
+		}
+		return poly;
+	}
+
+	/**
+	 * Creates the outline of the missile, with or without its flame.
+	 */
+	private static Shape createMissile(boolean flame) {
+		Path2D.Double poly = new Path2D.Double();
+		poly.moveTo(10, 0);
+		poly.lineTo(-10, 5);
+		poly.lineTo(-6, 5);
+		poly.lineTo(-6, -5);
+		poly.lineTo(-10, -5);
+		poly.closePath();
+		if (flame) {
+			poly.moveTo(-6, 2);
+			poly.lineTo(-20, 0);
+			poly.lineTo(-6, -2);
+			poly.closePath();
+		}
+		return poly;
+	}
+
+	/**
+	 * Creates the outline of a one pixel square whose top left corner is at
+	 * (x, y).
+	 */
+	private static Shape createSquare(double x, double y) {
+		Path2D.Double poly = new Path2D.Double();
+		poly.moveTo(x + 1, y);
+		poly.lineTo(x, y);
+		poly.lineTo(x, y + 1);
+		poly.lineTo(x + 1, y + 1);
+		poly.lineTo(x + 1, y);
+		poly.closePath();
+		return poly;
+	}
+
+	/**
+	 * Creates the outline of a piece of debris.
+	 */
+	private static Shape createDebris(int dx, int dy) {
+		Path2D.Double poly = new Path2D.Double();
+		poly.moveTo(0, 0);
+		poly.lineTo(dx, dy);
+		poly.closePath();
+		return poly;
+	}
+}
@@ -0,0 +1,138 @@
+package asteroids.participants;
+
+import asteroids.Participant;
+
+/**
+ * The types of participant that can be saved in a GameSnapshot. A snapshot
+ * records the type of each participant by its ordinal, so new types must be
+ * added at the end.
+ */
+public enum ParticipantType {
+	ALIEN(Alien.class) {
+		@Override
+		public Participant create() {
+			return new Alien();
+		}
+	},
+	ALIEN_BULLET(AlienBullet.class) {
+		@Override
+		public Participant create() {
+			return new AlienBullet();
+		}
+	},
+	ALIEN_DEBRIS(AlienDebris.class) {
+		@Override
+		public Participant create() {
+			return new AlienDebris();
+		}
+	},
+	ASTEROID(Asteroid.class) {
+		@Override
+		public Participant create() {
+			return new Asteroid();
+		}
+	},
+	BEATBOX(Beatbox.class) {
+		@Override
+		public Participant create() {
+			return new Beatbox();
+		}
+	},
+	BOSS_ALIEN(BossAlien.class) {
+		@Override
+		public Participant create() {
+			return new BossAlien();
+		}
+	},
+	BOSS_BULLET(BossBullet.class) {
+		@Override
+		public Participant create() {
+			return new BossBullet();
+		}
+	},
+	BULLET(Bullet.class) {
+		@Override
+		public Participant create() {
+			return new Bullet();
+		}
+	},
+	DEBRIS(Debris.class) {
+		@Override
+		public Participant create() {
+			return new Debris();
+		}
+	},
+	DUST(Dust.class) {
+		@Override
+		public Participant create() {
+			return new Dust();
+		}
+	},
+	MISSILE(Missile.class) {
+		@Override
+		public Participant create() {
+			return new Missile();
+		}
+	},
+	PLAYER_BULLET(PlayerBullet.class) {
+		@Override
+		public Participant create() {
+			return new PlayerBullet();
+		}
+	},
+	SHIELD(Shield.class) {
+		@Override
+		public Participant create() {
+			return new Shield();
+		}
+	},
+	SHIP(Ship.class) {
+		@Override
+		public Participant create() {
+			return new Ship();
+		}
+	};
+
+	// The type of each class of participant, or null for those that cannot be
+	// saved
+	private final static ClassValue<ParticipantType> TYPES = new ClassValue<ParticipantType>() {
+		@Override
+		protected ParticipantType computeValue(Class<?> type) {
+			for (ParticipantType t : values()) {
+				if (t.type == type) {
+					return t;
+				}
+			}
+			return null;
+		}
+	};
+
+	// The class of participant of this type
+	private final Class<? extends Participant> type;
+
+	/**
+	 * Creates a type for the given class.
+	 */
+	private ParticipantType(Class<? extends Participant> type) {
+		this.type = type;
+	}
+
+	/**
+	 * Creates a participant of this type that is blank, with no countdowns and
+	 * no use of random numbers, ready for its state to be restored from a
+	 * snapshot.
+	 */
+	public abstract Participant create();
+
+	/**
+	 * Returns the type of p. Throws an IllegalArgumentException if p is not of
+	 * a type that can be saved.
+	 */
+	public static ParticipantType of(Participant p) {
+		ParticipantType t = TYPES.get(p.getClass());
+		if (t == null) {
+			throw new IllegalArgumentException("Participants of type " + p.getClass().getName() + " cannot be saved");
+		}
+		return t;
+	}
+}
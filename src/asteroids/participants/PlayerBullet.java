@@ -4,18 +4,39 @@ import asteroids.Controller;
 import asteroids.Participant;
 import asteroids.destroyers.AlienDestroyer;
 import asteroids.destroyers.BossDestroyer;
+import asteroids.destroyers.CollidesWith;
 
 /**
  * Bullets shot by player ship
  * 
  * @author Gabriel Kerr, and Jasper Slaff
  */
+@CollidesWith({ Asteroid.class, Alien.class, BossAlien.class })
 public class PlayerBullet extends Bullet implements AlienDestroyer, BossDestroyer{
 
 	public PlayerBullet(double x, double y, double direction, Controller controller) {
 		super(x, y, direction, controller);
 	}
 
+	/**
+	 * Creates a blank bullet to be restored from a snapshot.
+	 */
+	PlayerBullet() {
+	}
+
+	/**
+	 * Returns a bullet at (x, y) heading in the given direction, reusing an
+	 * expired one if there is one
+	 */
+	public static PlayerBullet create(double x, double y, double direction, Controller controller) {
+		PlayerBullet b = controller.reuse(PlayerBullet.class);
+		if (b == null) {
+			return new PlayerBullet(x, y, direction, controller);
+		}
+		b.initialize(x, y, direction, controller);
+		return b;
+	}
+
 	@Override
 	public void collidedWith(Participant p) {
 		if (p instanceof Asteroid || p instanceof Alien || p instanceof BossAlien) {
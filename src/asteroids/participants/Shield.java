@@ -2,20 +2,38 @@ package asteroids.participants;
 
 import java.awt.Shape;
 import java.awt.geom.Path2D;
+import asteroids.GameSnapshot;
 import asteroids.Participant;
+import asteroids.destroyers.CollidesWith;
 
 /**
  * Turns on the shield of the ship
  * 
  * @author Gabriel Kerr, and Jasper Slaff
  */
+@CollidesWith(Ship.class)
 public class Shield extends Participant {
-	// The outline of the shield
+	// The outline of the shield, and the point it was drawn around
 	private Shape outline;
+	private double outlineX, outlineY;
 
 	public Shield(double x, double y) {
 		setPosition(x, y);
+		outlineX = x;
+		outlineY = y;
+		outline = createOutline(x, y);
+	}
+
+	/**
+	 * Creates a blank shield to be restored from a snapshot.
+	 */
+	Shield() {
+	}
 
+	/**
+	 * Creates the outline of a shield around (x, y).
+	 */
+	private static Shape createOutline(double x, double y) {
 		Path2D.Double poly = new Path2D.Double();
 		poly.moveTo(x, y);
 		poly.lineTo(x - 10, y - 5);
@@ -25,7 +43,22 @@ public class Shield extends Participant {
 		poly.lineTo(x + 10, y - 5);
 		poly.lineTo(x, y);
 		poly.closePath();
-		outline = poly;
+		return poly;
+	}
+
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putDouble(outlineX);
+		snapshot.putDouble(outlineY);
+	}
+
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		outlineX = snapshot.getDouble();
+		outlineY = snapshot.getDouble();
+		outline = createOutline(outlineX, outlineY);
 	}
 
 	@Override
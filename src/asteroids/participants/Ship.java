@@ -1,28 +1,24 @@
 package asteroids.participants;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.awt.geom.*;
-import java.io.BufferedInputStream;
-import java.io.IOException;
-
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
 
+import asteroids.Audio;
 import asteroids.Controller;
+import asteroids.GameRandom;
+import asteroids.GameSnapshot;
 import asteroids.Participant;
 import asteroids.ParticipantCountdownTimer;
-import asteroids.Sounds;
+import asteroids.RandomStream;
+import asteroids.Sound;
 import asteroids.destroyers.*;
 import static asteroids.Constants.*;
 
 /**
  * Represents ships
  */
-public class Ship extends Participant implements AsteroidDestroyer, AlienDestroyer, Sounds {
+public class Ship extends Participant implements AsteroidDestroyer, AlienDestroyer {
 	// The outline of the ship
 	private Shape outline;
 
@@ -38,10 +34,8 @@ public class Ship extends Participant implements AsteroidDestroyer, AlienDestroy
 	// Flame
 	private boolean on = true;
 
-	// Audio clips
-	private Clip fireClip;
-	private Clip thrustClip;
-	private Clip crashClip;
+	// Flickers the flame while the ship is accelerating
+	private ParticipantCountdownTimer flame;
 
 	// Constructs a ship at the specified coordinates
 	// that is pointed in the given direction.
@@ -55,41 +49,49 @@ public class Ship extends Participant implements AsteroidDestroyer, AlienDestroy
 		setRotation(direction);
 
 		// draw the ship
-		Path2D.Double poly = new Path2D.Double();
-		poly.moveTo(20, 0);
-		poly.lineTo(-20, 12);
-		poly.lineTo(-13, 10);
-		poly.lineTo(-13, -10);
-		poly.lineTo(-20, -12);
-		poly.closePath();
-		outline = poly;
-
-		// sound Clips
-		fireClip = createClip("/sounds/fire.wav");
-		thrustClip = createClip("/sounds/thrust.wav");
-		crashClip = createClip("/sounds/bangShip.wav");
+		outline = Outlines.SHIP;
 
 		// initialize shield
 		shield = false;
 		
 		// invincibility timer that lets you be invincible until it goes off
-		new ParticipantCountdownTimer(this, "invincible", 1000);
+		new ParticipantCountdownTimer(this, "invincible", 1000, controller);
+	}
+
+	/**
+	 * Creates a blank ship to be restored from a snapshot.
+	 */
+	Ship() {
+	}
+
+	@Override
+	protected void save(GameSnapshot snapshot) {
+		super.save(snapshot);
+		snapshot.putBoolean(shield);
+		snapshot.putBoolean(invincible);
+		snapshot.putBoolean(on);
+		snapshot.putBoolean(outline == Outlines.SHIP_WITH_FLAME);
+		snapshot.putTimer(flame);
+	}
+
+	@Override
+	protected void restore(GameSnapshot snapshot) {
+		super.restore(snapshot);
+		shield = snapshot.getBoolean();
+		invincible = snapshot.getBoolean();
+		on = snapshot.getBoolean();
+		outline = snapshot.getBoolean() ? Outlines.SHIP_WITH_FLAME : Outlines.SHIP;
+		flame = snapshot.getTimer();
+		controller = snapshot.getController();
 	}
 
 	/**
 	 * fires player bullets in the direction the ship is pointed
 	 */
 	public void fire() {
-		Bullet b = new PlayerBullet(getXNose(), getYNose(), getRotation(), controller);
-		new ParticipantCountdownTimer(b, "furthestDistance", BULLET_DURATION);
+		Bullet b = PlayerBullet.create(getXNose(), getYNose(), getRotation(), controller);
 		controller.addParticipant(b);
-		if (fireClip != null) {
-			if (fireClip.isRunning()) {
-				fireClip.stop();
-			}
-			fireClip.setFramePosition(0);
-			fireClip.start();
-		}
+		Audio.getSounds().play(Sound.FIRE);
 	}
 	
 	/**
@@ -126,12 +128,11 @@ public class Ship extends Participant implements AsteroidDestroyer, AlienDestroy
 	}
 
 	/**
-	 * Customizes the base move method by imposing friction
+	 * Imposes friction before each move
 	 */
 	@Override
-	public void move() {
+	protected void steer() {
 		applyFriction(SHIP_FRICTION);
-		super.move();
 	}
 
 	/**
@@ -153,27 +154,20 @@ public class Ship extends Participant implements AsteroidDestroyer, AlienDestroy
 	 */
 	public void accelerate() {
 		accelerate(SHIP_ACCELERATION);
-		if (thrustClip != null) {
-			thrustClip.loop(10);
+		Audio.getSounds().loop(Sound.THRUST, 10);
+		if (flame == null) {
+			flame = new ParticipantCountdownTimer(this, "flame", 10, controller);
+		} else {
+			flame.restart(10);
 		}
-		new ParticipantCountdownTimer(this, "flame", 10);
 	}
 
 	/**
 	 * Draws original ship
 	 */
 	public void decelerate() {
-		Path2D.Double poly = new Path2D.Double();
-		poly.moveTo(20, 0);
-		poly.lineTo(-20, 12);
-		poly.lineTo(-13, 10);
-		poly.lineTo(-13, -10);
-		poly.lineTo(-20, -12);
-		poly.closePath();
-		outline = poly;
-		if (thrustClip != null) {
-			thrustClip.stop();
-		}
+		outline = Outlines.SHIP;
+		Audio.getSounds().stop(Sound.THRUST);
 	}
 
 	/**
@@ -182,15 +176,9 @@ public class Ship extends Participant implements AsteroidDestroyer, AlienDestroy
 	@Override
 	public void collidedWith(Participant p) {
 		if (p instanceof ShipDestroyer && !invincible) {
-			if (thrustClip != null && thrustClip.isActive() && !shield) {
-				thrustClip.stop();
-			}
-			if (crashClip != null && !shield) {
-				if (crashClip.isRunning()) {
-					crashClip.stop();
-				}
-				crashClip.setFramePosition(0);
-				crashClip.start();
+			if (!shield) {
+				Audio.getSounds().stop(Sound.THRUST);
+				Audio.getSounds().play(Sound.BANG_SHIP);
 			}
 
 			if (!shield) {
@@ -201,9 +189,9 @@ public class Ship extends Participant implements AsteroidDestroyer, AlienDestroy
 				controller.shipDestroyed();
 
 				// display debris
-				Debris l1 = new Debris(getX(), getY());
-				Debris l2 = new Debris(getX() + 2, getY() + 2);
-				Debris l3 = new Debris(getX() - 1, getY() + 3);
+				Debris l1 = Debris.create(getX(), getY(), controller);
+				Debris l2 = Debris.create(getX() + 2, getY() + 2, controller);
+				Debris l3 = Debris.create(getX() - 1, getY() + 3, controller);
 				controller.addParticipant(l1);
 				controller.addParticipant(l2);
 				controller.addParticipant(l3);
@@ -217,7 +205,8 @@ public class Ship extends Participant implements AsteroidDestroyer, AlienDestroy
 	 * sets player position to a random location on the map
 	 */
 	public void teleport() {
-		setPosition(RANDOM.nextInt(SIZE), RANDOM.nextInt(SIZE));
+		GameRandom random = controller.getRandom(RandomStream.SHIP);
+		setPosition(random.nextInt(SIZE), random.nextInt(SIZE));
 	}
 
 	/**
@@ -235,19 +224,11 @@ public class Ship extends Participant implements AsteroidDestroyer, AlienDestroy
 	}
 
 	/**
-	 * draws a colorful ship if enhanced version
-	 * 
-	 * @param g
+	 * colors the ship cyan while the shield is up
 	 */
 	@Override
-	public void draw(Graphics2D g) {
-		if (shield) {
-			g.setColor(Color.CYAN);
-			super.draw(g);
-			g.setColor(Color.WHITE);
-		} else {
-			super.draw(g);
-		}
+	public Color getColor() {
+		return shield ? Color.CYAN : Color.WHITE;
 	}
 
 	/**
@@ -256,55 +237,14 @@ public class Ship extends Participant implements AsteroidDestroyer, AlienDestroy
 	@Override
 	public void countdownComplete(Object payload) {
 		if (payload.equals("flame") && on) {
-			Path2D.Double poly = new Path2D.Double();
-			poly.moveTo(20, 0);
-			poly.lineTo(-20, 12);
-			poly.lineTo(-13, 10);
-			poly.lineTo(-13, -10);
-			poly.lineTo(-20, -12);
-			poly.closePath();
-			poly.moveTo(-13, -10);
-			poly.lineTo(-25, 0);
-			poly.lineTo(-13, 10);
-			outline = poly;
+			outline = Outlines.SHIP_WITH_FLAME;
 			on = false;
 		} else if(payload.equals("flame") && !on){
-			Path2D.Double poly = new Path2D.Double();
-			poly.moveTo(20, 0);
-			poly.lineTo(-20, 12);
-			poly.lineTo(-13, 10);
-			poly.lineTo(-13, -10);
-			poly.lineTo(-20, -12);
-			poly.closePath();
-			outline = poly;
+			outline = Outlines.SHIP;
 			on = true;
 		}
 		if(payload.equals("invincible")){
 			invincible = false;
 		}
 	}
-
-	/**
-	 * Creates sound clips
-	 */
-	@Override
-	public Clip createClip(String soundFile) {
-		// Opening the sound file this way will work no matter how the
-		// project is exported. The only restriction is that the
-		// sound files must be stored in a package.
-		try (BufferedInputStream sound = new BufferedInputStream(getClass().getResourceAsStream(soundFile))) {
-			// Create and return a Clip that will play a sound file. There are
-			// various reasons that the creation attempt could fail. If it
-			// fails, return null.
-			Clip clip = AudioSystem.getClip();
-			clip.open(AudioSystem.getAudioInputStream(sound));
-			return clip;
-		} catch (LineUnavailableException e) {
-			return null;
-		} catch (IOException e) {
-			return null;
-		} catch (UnsupportedAudioFileException e) {
-			return null;
-		}
-	}
 }